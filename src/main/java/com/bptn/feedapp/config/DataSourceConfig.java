@@ -0,0 +1,78 @@
+package com.bptn.feedapp.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class DataSourceConfig {
+
+	@Autowired
+	ResourceProvider provider;
+
+	/* The spring.datasource pool, as Spring Boot would build it */
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	HikariDataSource primaryDataSource(DataSourceProperties properties) {
+
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+
+		return dataSource;
+	}
+
+	@Bean(destroyMethod = "close")
+	ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, DataSourceProperties properties,
+			MeterRegistry meterRegistry) {
+
+		List<HikariDataSource> replicas = new ArrayList<>();
+
+		for (String url : this.provider.getReplicaUrls()) {
+
+			if (!StringUtils.hasText(url)) {
+				continue;
+			}
+
+			/* Replica pools report their own hikaricp metrics, tagged with the pool name */
+			HikariDataSource replica = new HikariDataSource();
+			replica.setPoolName("replica-" + (replicas.size() + 1));
+			replica.setJdbcUrl(url.trim());
+			replica.setUsername(properties.determineUsername());
+			replica.setPassword(properties.determinePassword());
+			replica.setDriverClassName(properties.determineDriverClassName());
+			replica.setMaximumPoolSize(this.provider.getReplicaPoolSize());
+			replica.setReadOnly(true);
+			replica.setInitializationFailTimeout(-1);
+			replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+			replicas.add(replica);
+		}
+
+		return new ReplicaRoutingDataSource(primaryDataSource, replicas, this.provider.getReplicaMaxLag(),
+				this.provider.getReplicaLagQuery(), meterRegistry);
+	}
+
+	/* The connection is only taken on the first statement, once the transaction is known to be read-only */
+	@Bean
+	@Primary
+	DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+		return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+	}
+
+}
@@ -0,0 +1,190 @@
+package com.bptn.feedapp.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Sends read-only transactions declared by the application to a replica and everything else
+ * to the primary. Replicas are checked for lag on a schedule, a replica behind by more than
+ * maxLag, or failing, is skipped until it catches up. With no healthy replica the primary
+ * serves the reads.
+ *
+ * The read-only transactions Spring Data opens around a single repository call stay on the
+ * primary: services read and then save entities outside of a transaction (verifyEmail,
+ * updateUser...) and a stale read there would be written back.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private static final String SPRING_DATA = "org.springframework.data.";
+
+	public static class Replica {
+
+		final HikariDataSource dataSource;
+		volatile long lag = -1;
+		volatile boolean healthy;
+
+		Replica(HikariDataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+
+		public String getName() {
+			return dataSource.getPoolName();
+		}
+
+		public long getLag() {
+			return lag;
+		}
+
+		public boolean isHealthy() {
+			return healthy;
+		}
+	}
+
+	private final DataSource primary;
+	private final List<Replica> replicas;
+	private final long maxLag;
+	private final String lagQuery;
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	private final Counter primaryCounter;
+	private final Counter replicaCounter;
+
+	public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, long maxLag, String lagQuery,
+			MeterRegistry meterRegistry) {
+
+		this.primary = primary;
+		this.replicas = replicas.stream().map(Replica::new).toList();
+		this.maxLag = maxLag;
+		this.lagQuery = lagQuery;
+
+		this.primaryCounter = Counter.builder("datasource.route").tag("target", "primary").register(meterRegistry);
+		this.replicaCounter = Counter.builder("datasource.route").tag("target", "replica").register(meterRegistry);
+
+		for (Replica replica : this.replicas) {
+			Gauge.builder("datasource.replica.lag", replica, Replica::getLag).tag("pool", replica.getName())
+					.baseUnit("milliseconds").register(meterRegistry);
+		}
+
+		Gauge.builder("datasource.replica.healthy", this, r -> r.getReplicas().stream().filter(Replica::isHealthy).count())
+				.register(meterRegistry);
+	}
+
+	public List<Replica> getReplicas() {
+		return replicas;
+	}
+
+	@Scheduled(fixedDelayString = "${replica.lag-check-interval}")
+	public void checkLag() {
+
+		for (Replica replica : this.replicas) {
+
+			try {
+				Number lag = new JdbcTemplate(replica.dataSource).queryForObject(this.lagQuery, Number.class);
+
+				replica.lag = lag == null ? 0 : lag.longValue();
+
+				if (replica.healthy != replica.lag <= this.maxLag) {
+					this.logger.warn("Replica {}, {}, lag: {} ms", replica.getName(),
+							replica.lag <= this.maxLag ? "Back in Use" : "Skipped", replica.lag);
+				}
+
+				replica.healthy = replica.lag <= this.maxLag;
+
+			} catch (Exception ex) {
+
+				if (replica.healthy) {
+					this.logger.warn("Replica " + replica.getName() + ", Skipped", ex);
+				}
+
+				replica.healthy = false;
+			}
+		}
+	}
+
+	/* True when the current transaction may read from a replica */
+	public static boolean isReplicaTransaction() {
+
+		String transactionName = TransactionSynchronizationManager.getCurrentTransactionName();
+
+		return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && transactionName != null
+				&& !transactionName.startsWith(SPRING_DATA);
+	}
+
+	/* Round robin over the healthy replicas */
+	private Replica selectReplica() {
+
+		if (!isReplicaTransaction()) {
+			return null;
+		}
+
+		int size = this.replicas.size();
+		int start = Math.floorMod(this.next.getAndIncrement(), Math.max(size, 1));
+
+		for (int i = 0; i < size; i++) {
+
+			Replica replica = this.replicas.get((start + i) % size);
+
+			if (replica.healthy) {
+				return replica;
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+
+		Replica replica = this.selectReplica();
+
+		if (replica != null) {
+			try {
+				Connection connection = replica.dataSource.getConnection();
+				this.replicaCounter.increment();
+				return connection;
+
+			} catch (SQLException ex) {
+				this.logger.warn("Replica " + replica.getName() + ", Skipped", ex);
+				replica.healthy = false;
+			}
+		}
+
+		this.primaryCounter.increment();
+
+		return this.primary.getConnection();
+	}
+
+	/* The replica pools hold their own credentials, explicit ones always go to the primary */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+
+		this.primaryCounter.increment();
+
+		return this.primary.getConnection(username, password);
+	}
+
+	public void close() {
+		this.replicas.forEach(r -> r.dataSource.close());
+	}
+
+}
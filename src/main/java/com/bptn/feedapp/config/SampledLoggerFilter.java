@@ -0,0 +1,42 @@
+package com.bptn.feedapp.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/*
+ * Lets one event in every rate through for the loggers starting with the configured name,
+ * the others are dropped before Logback creates the event. Level checks (isDebugEnabled())
+ * are not counted so guarded log statements still reach the sampled call.
+ */
+public class SampledLoggerFilter extends TurboFilter {
+
+	private final AtomicLong events = new AtomicLong();
+
+	private String logger;
+	private long rate = 100;
+
+	public void setLogger(String logger) {
+		this.logger = logger;
+	}
+
+	public void setRate(long rate) {
+		this.rate = rate;
+	}
+
+	@Override
+	public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+
+		if (format == null || this.logger == null || !logger.getName().startsWith(this.logger)) {
+			return FilterReply.NEUTRAL;
+		}
+
+		return this.events.getAndIncrement() % this.rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.bptn.feedapp.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/*
+ * Counts the SQL statements Hibernate prepares on the current thread, read and reset
+ * around every request by the RequestMetricsFilter. JdbcTemplate statements are not seen.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+	@Override
+	public String inspect(String sql) {
+
+		COUNT.get()[0]++;
+
+		return sql;
+	}
+
+	public static void reset() {
+		COUNT.get()[0] = 0;
+	}
+
+	public static int get() {
+		return COUNT.get()[0];
+	}
+
+}
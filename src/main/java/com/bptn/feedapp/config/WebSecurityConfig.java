@@ -8,12 +8,12 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -23,7 +23,9 @@ import org.springframework.web.servlet.handler.HandlerMappingIntrospector;
 
 import com.bptn.feedapp.filter.CustomAuthEntryPoint;
 import com.bptn.feedapp.filter.JwtAuthorizationFilter;
+import com.bptn.feedapp.filter.RateLimitFilter;
 import com.bptn.feedapp.provider.ResourceProvider;
+import com.bptn.feedapp.security.CalibratedPasswordEncoder;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 @Configuration
@@ -36,12 +38,16 @@ public class WebSecurityConfig {
 	@Autowired
 	JwtAuthorizationFilter jwtAuthorizationFilter;
 
+	@Autowired
+	RateLimitFilter rateLimitFilter;
+
 	@Autowired
 	CustomAuthEntryPoint customAuthEntryPoint;
 
 	@Bean
 	PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+		return new CalibratedPasswordEncoder(this.provider.getPasswordTargetHashTime(), this.provider.getPasswordMinCost(),
+				this.provider.getPasswordMaxCost());
 	}
 
 	@Bean
@@ -60,6 +66,11 @@ public class WebSecurityConfig {
 		return Arrays.stream(this.provider.getJwtExcludedUrls()).map(url -> mvc.pattern(url))
 				.toArray(RequestMatcher[]::new);
 	}
+
+	/* Bulk account creation is limited to the users listed in admin.usernames */
+	private RequestMatcher getAdminMatcher(MvcRequestMatcher.Builder mvc) {
+		return mvc.pattern(HttpMethod.POST, "/user/import");
+	}
 	
 	@Bean("test")
 	SecurityFilterChain securityFilterChainTest(HttpSecurity http, MvcRequestMatcher.Builder mvc) throws Exception {
@@ -67,9 +78,11 @@ public class WebSecurityConfig {
 			http.sessionManagement((session) -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 			  .authorizeHttpRequests((requests) -> requests.requestMatchers(PathRequest.toH2Console()).permitAll()
 					                                      .requestMatchers(this.getMatchers(mvc)).permitAll()
+	                                                      .requestMatchers(this.getAdminMatcher(mvc)).hasRole("ADMIN")
 	                                                      .anyRequest().authenticated())
 	          .exceptionHandling((handler)-> handler.authenticationEntryPoint(this.customAuthEntryPoint))
 	          .addFilterBefore(this.jwtAuthorizationFilter, UsernamePasswordAuthenticationFilter.class)
+	          .addFilterAfter(this.rateLimitFilter, JwtAuthorizationFilter.class)
 	          .headers((headers) -> headers.frameOptions((frame) -> frame.sameOrigin()))
 	          .cors(withDefaults())
 	          .csrf((csrf) -> csrf.disable());
@@ -83,9 +96,11 @@ public class WebSecurityConfig {
 			
 			http.sessionManagement((session) -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 			  .authorizeHttpRequests((requests) -> requests.requestMatchers(this.getMatchers(mvc)).permitAll()
+	                                                      .requestMatchers(this.getAdminMatcher(mvc)).hasRole("ADMIN")
 	                                                      .anyRequest().authenticated())
 	          .exceptionHandling((handler)-> handler.authenticationEntryPoint(this.customAuthEntryPoint))		
 	          .addFilterBefore(this.jwtAuthorizationFilter, UsernamePasswordAuthenticationFilter.class)
+	          .addFilterAfter(this.rateLimitFilter, JwtAuthorizationFilter.class)
 	          .cors(withDefaults())
 	          .csrf((csrf) -> csrf.disable());
 			
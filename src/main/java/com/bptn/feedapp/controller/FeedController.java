@@ -1,21 +1,40 @@
 package com.bptn.feedapp.controller;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.bptn.feedapp.domain.CachedJson;
+import com.bptn.feedapp.domain.CompactTimeline;
+import com.bptn.feedapp.domain.CursorResponse;
 import com.bptn.feedapp.domain.PageResponse;
+import com.bptn.feedapp.domain.TrendingTag;
 import com.bptn.feedapp.jpa.Feed;
 import com.bptn.feedapp.jpa.FeedMetaData;
 import com.bptn.feedapp.service.FeedService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.annotation.PostConstruct;
+
+import static org.springframework.http.HttpHeaders.ACCEPT;
 
 @CrossOrigin
 @RestController
@@ -27,6 +46,18 @@ public class FeedController {
 	@Autowired
 	FeedService feedService;
 
+	@Autowired
+	ObjectMapper objectMapper;
+
+	private ObjectWriter compactWriter;
+
+	@PostConstruct
+	public void init() {
+
+		/* Built once, the serializers of CompactTimeline are resolved on the first page only */
+		this.compactWriter = this.objectMapper.writerFor(CompactTimeline.class);
+	}
+
 	@PostMapping
 	public Feed createFeed(@RequestBody Feed feed) {
 
@@ -35,12 +66,79 @@ public class FeedController {
 		return this.feedService.createFeed(feed);
 	}
 
+	@GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamFeeds() {
+
+		logger.debug("Opening Feed Stream");
+
+		return this.feedService.streamFeeds();
+	}
+
 	@GetMapping("/{feedId}")
-	public Feed getFeed(@PathVariable int feedId) {
+	public ResponseEntity<byte[]> getFeed(@PathVariable int feedId, WebRequest request) {
 
 		logger.debug("Getting Feed, feedId: {}", feedId);
 
-		return this.feedService.getFeedById(feedId);
+		CachedJson feed = this.feedService.getFeedJson(feedId);
+
+		/* A copy holding buffered likes or comments has no version */
+		if (feed.eTag() == null) {
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(feed.json());
+		}
+
+		/* Answers 304 when If-None-Match holds the current version. */
+		if (request.checkNotModified(feed.eTag())) {
+			return null;
+		}
+
+		return ResponseEntity.ok().eTag(feed.eTag()).contentType(MediaType.APPLICATION_JSON).body(feed.json());
+	}
+
+	@GetMapping("/search")
+	public ResponseEntity<?> searchFeeds(@RequestParam String q, @RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "20") int limit, @RequestParam(required = false) String view,
+			@RequestHeader(name = ACCEPT, required = false) String accept) throws JsonProcessingException {
+
+		logger.debug("Searching Feeds, q: {}, after: {}, limit: {}", q, after, limit);
+
+		return this.timeline(this.feedService.searchFeeds(q, after, limit), view, accept);
+	}
+
+	@GetMapping("/tag/{tag}")
+	public ResponseEntity<?> getTagFeeds(@PathVariable String tag, @RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "20") int limit, @RequestParam(required = false) String view,
+			@RequestHeader(name = ACCEPT, required = false) String accept) throws JsonProcessingException {
+
+		logger.debug("Getting Tag Feeds List, tag: {}, after: {}, limit: {}", tag, after, limit);
+
+		return this.timeline(this.feedService.getTagFeeds(tag, after, limit), view, accept);
+	}
+
+	@GetMapping("/mentions")
+	public ResponseEntity<?> getMentionFeeds(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "20") int limit, @RequestParam(required = false) String view,
+			@RequestHeader(name = ACCEPT, required = false) String accept) throws JsonProcessingException {
+
+		logger.debug("Getting Mention Feeds List, after: {}, limit: {}", after, limit);
+
+		return this.timeline(this.feedService.getMentionFeeds(after, limit), view, accept);
+	}
+
+	@GetMapping("/tags/trending")
+	public List<TrendingTag> getTrendingTags(@RequestParam(defaultValue = "10") int limit) {
+
+		logger.debug("Getting Trending Tags, limit: {}", limit);
+
+		return this.feedService.getTrendingTags(limit);
+	}
+
+	@GetMapping("/{feedId}/comments")
+	public CursorResponse<FeedMetaData> getFeedComments(@PathVariable int feedId,
+			@RequestParam(required = false) String after, @RequestParam(defaultValue = "20") int limit) {
+
+		logger.debug("Getting Feed Comments, feedId: {}, after: {}, limit: {}", feedId, after, limit);
+
+		return this.feedService.getFeedComments(feedId, after, limit);
 	}
 
 	@GetMapping("/user/{pageNum}/{pageSize}")
@@ -57,13 +155,53 @@ public class FeedController {
 
 		return this.feedService.getOtherUsersFeeds(pageNum, pageSize);
 	}
+
+	@GetMapping("/user")
+	public ResponseEntity<?> getUserFeeds(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "20") int limit, @RequestParam(required = false) String view,
+			@RequestHeader(name = ACCEPT, required = false) String accept) throws JsonProcessingException {
+
+		logger.debug("Getting User Feeds List, after: {}, limit: {}", after, limit);
+
+		return this.timeline(this.feedService.getUserFeeds(after, limit), view, accept);
+	}
+
+	@GetMapping("/other")
+	public ResponseEntity<?> getOtherUsersFeeds(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "20") int limit, @RequestParam(required = false) String view,
+			@RequestHeader(name = ACCEPT, required = false) String accept) throws JsonProcessingException {
+
+		logger.debug("Getting other User Feeds List, after: {}, limit: {}", after, limit);
+
+		return this.timeline(this.feedService.getOtherUsersFeeds(after, limit), view, accept);
+	}
+
+	/* The compact view is chosen with ?view=compact or by accepting its media type. */
+	private ResponseEntity<?> timeline(CursorResponse<Feed> page, String view, String accept) throws JsonProcessingException {
+
+		boolean compact = "compact".equals(view) || (accept != null
+				&& MediaType.parseMediaTypes(accept).stream().anyMatch(CompactTimeline.MEDIA_TYPE::equalsTypeAndSubtype));
+
+		if (compact) {
+			return ResponseEntity.ok().varyBy(ACCEPT).contentType(CompactTimeline.MEDIA_TYPE)
+					.body(this.compactWriter.writeValueAsBytes(new CompactTimeline(page)));
+		}
+
+		return ResponseEntity.ok().varyBy(ACCEPT).body(page);
+	}
 	
 	@PostMapping("/meta/{feedId}")
-	public FeedMetaData createFeedMetaData(@PathVariable int feedId, @RequestBody FeedMetaData meta) {
+	public ResponseEntity<FeedMetaData> createFeedMetaData(@PathVariable int feedId, @RequestBody FeedMetaData meta,
+			@RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
 			
 		logger.debug("Creating FeedMetaData, feedId: {}", feedId);
+		
+		/* Buffered likes and comments are written later */
+		if (this.feedService.isWriteBehind()) {
+			return ResponseEntity.accepted().body(this.feedService.queueFeedMetaData(feedId, meta, idempotencyKey));
+		}
 			
-		return this.feedService.createFeedMetaData(feedId, meta);
+		return ResponseEntity.ok(this.feedService.createFeedMetaData(feedId, meta));
 	}
 	
 	@DeleteMapping("/{feedId}")
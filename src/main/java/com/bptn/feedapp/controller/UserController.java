@@ -1,30 +1,41 @@
 package com.bptn.feedapp.controller;
 
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.HttpStatus.OK;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.sql.Timestamp;
 import java.time.Instant;
-import java.util.List;
 import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.bptn.feedapp.domain.CursorResponse;
 import com.bptn.feedapp.jpa.Profile;
 import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.service.UserImportService;
 import com.bptn.feedapp.service.UserService;
 import com.fasterxml.jackson.databind.JsonNode;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 
 @CrossOrigin(exposedHeaders = "Authorization")
 @RestController
@@ -36,6 +47,9 @@ public class UserController {
 	@Autowired
 	UserService userService;
 
+	@Autowired
+	UserImportService userImportService;
+
 	@GetMapping("/test")
 	public String testController() {
 
@@ -45,10 +59,24 @@ public class UserController {
 	}
 
 	@GetMapping("/")
-	public List<User> listUsers() {
+	public void listUsers(HttpServletResponse response) throws IOException {
 
 		logger.debug("The listUsers() method was invoked!");
-		return this.userService.listUsers();
+
+		/* Streamed from a JDBC cursor, the user list is never held in memory */
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.setCharacterEncoding("UTF-8");
+
+		this.userService.streamUsers(response.getOutputStream());
+	}
+
+	@GetMapping("/list")
+	public CursorResponse<User> listUsers(@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "20") int limit) {
+
+		logger.debug("Listing Users, after: {}, limit: {}", after, limit);
+
+		return this.userService.listUsers(after, limit);
 	}
 
 	@GetMapping("/{username}")
@@ -91,6 +119,22 @@ public class UserController {
 
 	}
 
+	@PostMapping("/import")
+	public void importUsers(@RequestHeader(CONTENT_TYPE) String contentType, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+
+		logger.debug("Importing Users, Content-Type: {}", contentType);
+
+		/* Errors and progress are streamed back while the upload is processed */
+		response.setContentType("application/x-ndjson");
+		response.setCharacterEncoding("UTF-8");
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(),
+				Optional.ofNullable(request.getCharacterEncoding()).orElse("UTF-8")));
+
+		this.userImportService.importUsers(reader, contentType.contains("csv"), response.getWriter());
+	}
+
 	@GetMapping("/verify/email")
 	public void verifyEmail() {
 			
@@ -102,7 +146,7 @@ public class UserController {
 	@PostMapping("/login")
 	public ResponseEntity<User> login(@RequestBody User user) {
 		
-		logger.debug("Authenticating, username: {}, password: {}", user.getUsername(), user.getPassword());
+		logger.debug("Authenticating, username: {}", user.getUsername());
 			
 		/* Spring Security Authentication. */
 		user = this.userService.authenticate(user);
@@ -0,0 +1,5 @@
+package com.bptn.feedapp.domain;
+
+/* A serialized response body and the strong ETag of that version. */
+public record CachedJson(String eTag, byte[] json) {
+}
@@ -0,0 +1,75 @@
+package com.bptn.feedapp.domain;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.MediaType;
+
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.jpa.Profile;
+import com.bptn.feedapp.jpa.User;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/*
+ * Compact form of a timeline page: every author is written once in the users table and the
+ * feeds refer to it by userId. Feeds carry the like and comment counters but no metadata.
+ */
+public class CompactTimeline {
+
+	public static final String MEDIA_TYPE_VALUE = "application/vnd.feedapp.compact+json";
+	public static final MediaType MEDIA_TYPE = MediaType.valueOf(MEDIA_TYPE_VALUE);
+
+	public record Item(Integer feedId, String picture, String content, Timestamp createdOn, Integer likeCount,
+			Integer commentCount, Integer userId) {
+	}
+
+	/* The public part of a user, contact details are left out. */
+	public record Author(Integer userId, String username, String firstName, String lastName,
+			@JsonInclude(Include.NON_NULL) Profile profile) {
+	}
+
+	int limit;
+	String nextCursor;
+	List<Item> content;
+	Map<Integer, Author> users;
+
+	public CompactTimeline(CursorResponse<Feed> page) {
+
+		this.limit = page.getLimit();
+		this.nextCursor = page.getNextCursor();
+		this.content = new ArrayList<>(page.getContent().size());
+		this.users = new LinkedHashMap<>();
+
+		for (Feed feed : page.getContent()) {
+
+			User user = feed.getUser();
+
+			this.content.add(new Item(feed.getFeedId(), feed.getPicture(), feed.getContent(), feed.getCreatedOn(),
+					feed.getLikeCount(), feed.getCommentCount(), user.getUserId()));
+
+			this.users.computeIfAbsent(user.getUserId(),
+					userId -> new Author(userId, user.getUsername(), user.getFirstName(), user.getLastName(), user.getProfile()));
+		}
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public List<Item> getContent() {
+		return content;
+	}
+
+	public Map<Integer, Author> getUsers() {
+		return users;
+	}
+
+}
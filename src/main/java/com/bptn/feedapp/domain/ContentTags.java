@@ -0,0 +1,49 @@
+package com.bptn.feedapp.domain;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.bptn.feedapp.jpa.FeedTag;
+
+/*
+ * The #hashtags and @mentions of a feed. Both are lower-cased, so #Java and #java are the
+ * same tag and @Ann mentions the user signed up as Ann, whose username is stored as ann. A
+ * feed counts up to MAX_PER_FEED of each.
+ */
+public record ContentTags(Set<String> tags, Set<String> mentions) {
+
+	public static final int MAX_PER_FEED = 10;
+
+	/* Not preceded by a word character, so neither "a#b" nor "name@example.com" match. */
+	static final Pattern TAG = Pattern.compile("(?<![\\p{L}\\p{N}_&#])#(\\p{L}[\\p{L}\\p{N}_]{0," + (FeedTag.MAX_TAG_LENGTH - 1) + "})(?![\\p{L}\\p{N}_])");
+	static final Pattern MENTION = Pattern.compile("(?<![\\p{L}\\p{N}_.@])@([\\p{L}\\p{N}_.]*[\\p{L}\\p{N}_])");
+
+	public static ContentTags parse(String content) {
+
+		if (content == null) {
+			return new ContentTags(Set.of(), Set.of());
+		}
+
+		return new ContentTags(find(TAG, content), find(MENTION, content));
+	}
+
+	public static String normalize(String tag) {
+		return tag.toLowerCase(Locale.ROOT);
+	}
+
+	private static Set<String> find(Pattern pattern, String content) {
+
+		Set<String> found = new LinkedHashSet<>();
+		Matcher matcher = pattern.matcher(content);
+
+		while (found.size() < MAX_PER_FEED && matcher.find()) {
+			found.add(normalize(matcher.group(1)));
+		}
+
+		return found;
+	}
+
+}
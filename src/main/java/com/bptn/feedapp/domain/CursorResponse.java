@@ -0,0 +1,82 @@
+package com.bptn.feedapp.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.bptn.feedapp.exception.domain.InvalidCursorException;
+
+public class CursorResponse<T> {
+
+	public static final int MAX_LIMIT = 100;
+
+	int limit;
+	String nextCursor;
+	List<T> content;
+
+	/*
+	 * Builds a page from a slice fetched with limit + 1 rows, the extra row only
+	 * tells us if there is a next page and is never returned to the client.
+	 */
+	public CursorResponse(List<T> slice, int limit, Function<T, Integer> keyExtractor) {
+
+		this.limit = limit;
+
+		if (slice.size() > limit) {
+			this.content = slice.subList(0, limit);
+			this.nextCursor = encode(keyExtractor.apply(this.content.get(limit - 1)));
+		} else {
+			this.content = slice;
+		}
+	}
+
+	/* The limit requested by the client, kept between 1 and MAX_LIMIT */
+	public static int pageSize(int limit) {
+		return Math.max(1, Math.min(limit, MAX_LIMIT));
+	}
+
+	/* The cursor is opaque to the client, it only has to hand it back unchanged. */
+	public static String encode(int key) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(key).getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static Optional<Integer> decode(String cursor) {
+
+		if (Optional.ofNullable(cursor).filter(c -> !c.isBlank()).isEmpty()) {
+			return Optional.empty();
+		}
+
+		try {
+			return Optional.of(Integer.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)));
+		} catch (IllegalArgumentException ex) {
+			throw new InvalidCursorException(String.format("Invalid cursor, %s", cursor));
+		}
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public void setLimit(int limit) {
+		this.limit = limit;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public void setContent(List<T> content) {
+		this.content = content;
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.bptn.feedapp.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.unbescape.html.HtmlEscape;
+
+/*
+ * An email template rendered once with marker values, split into its static fragments and
+ * the slots between them. Rendering a recipient only appends the fragments and the escaped
+ * values, the template is never parsed or evaluated again.
+ */
+public class EmailTemplate {
+
+	/* Private use characters, th:text leaves them untouched */
+	private static final char MARKER_START = '\uE000';
+	private static final char MARKER_END = '\uE001';
+
+	public enum Slot {
+
+		FIRST_NAME, LAST_NAME, USERNAME, TOKEN;
+
+		public String marker() {
+			return String.valueOf(MARKER_START) + this.ordinal() + MARKER_END;
+		}
+	}
+
+	private final String[] fragments;
+	private final Slot[] slots;
+	private final int length;
+
+	private EmailTemplate(String[] fragments, Slot[] slots) {
+
+		this.fragments = fragments;
+		this.slots = slots;
+
+		int length = 0;
+
+		for (String fragment : fragments) {
+			length += fragment.length();
+		}
+
+		this.length = length;
+	}
+
+	/* Splits a template rendered with the Slot markers as values */
+	public static EmailTemplate compile(String rendered) {
+
+		List<String> fragments = new ArrayList<>();
+		List<Slot> slots = new ArrayList<>();
+
+		int from = 0;
+		int start;
+
+		while ((start = rendered.indexOf(MARKER_START, from)) >= 0) {
+
+			int end = rendered.indexOf(MARKER_END, start);
+
+			fragments.add(rendered.substring(from, start));
+			slots.add(Slot.values()[Integer.parseInt(rendered.substring(start + 1, end))]);
+
+			from = end + 1;
+		}
+
+		fragments.add(rendered.substring(from));
+
+		return new EmailTemplate(fragments.toArray(String[]::new), slots.toArray(Slot[]::new));
+	}
+
+	/* Values are indexed by Slot ordinal and escaped the way th:text does */
+	public String render(String... values) {
+
+		StringBuilder html = new StringBuilder(this.length + 256);
+
+		for (int i = 0; i < this.slots.length; i++) {
+			html.append(this.fragments[i]);
+			html.append(HtmlEscape.escapeHtml4Xml(values[this.slots[i].ordinal()]));
+		}
+
+		return html.append(this.fragments[this.slots.length]).toString();
+	}
+
+}
@@ -0,0 +1,146 @@
+package com.bptn.feedapp.domain;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * The newest feedIds a user can see on the home timeline, kept in descending order and
+ * trimmed to a fixed depth. It is filled once from the database and then kept current
+ * by pushing every new feed into it.
+ */
+public class HomeTimeline {
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final int[] feedIds;
+	private int size;
+
+	/* True while nothing was trimmed, the timeline then holds every feed the user can see. */
+	private boolean complete = true;
+
+	private volatile boolean loaded;
+
+	public HomeTimeline(int depth) {
+		this.feedIds = new int[depth];
+	}
+
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	/* Merges the feedIds read from the database, feeds pushed in the meantime are kept. */
+	public void load(List<Integer> ids, boolean complete) {
+
+		this.lock.lock();
+
+		try {
+			ids.forEach(this::insert);
+			this.complete = this.complete && complete;
+			this.loaded = true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	public void add(int feedId) {
+
+		this.lock.lock();
+
+		try {
+			this.insert(feedId);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	public void remove(int feedId) {
+
+		this.lock.lock();
+
+		try {
+			int pos = this.indexOf(feedId);
+
+			if (pos >= 0) {
+				System.arraycopy(this.feedIds, pos + 1, this.feedIds, pos, this.size - pos - 1);
+				this.size--;
+			}
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/*
+	 * Up to limit feedIds below the given one (newest first when null). Empty when the
+	 * page reaches past the trimmed part, the caller must then read it from the database.
+	 */
+	public Optional<int[]> page(Integer before, int limit) {
+
+		this.lock.lock();
+
+		try {
+			int from = Optional.ofNullable(before).map(this::indexOf)
+					.map(pos -> pos >= 0 ? pos + 1 : -pos - 1).orElse(0);
+			int to = Math.min(this.size, from + limit);
+
+			if (to - from < limit && !this.complete) {
+				return Optional.empty();
+			}
+
+			return Optional.of(Arrays.copyOfRange(this.feedIds, from, to));
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/* Binary search over the descending array, same contract as Arrays.binarySearch(). */
+	private int indexOf(int feedId) {
+
+		int low = 0;
+		int high = this.size - 1;
+
+		while (low <= high) {
+
+			int mid = (low + high) >>> 1;
+
+			if (this.feedIds[mid] > feedId) {
+				low = mid + 1;
+			} else if (this.feedIds[mid] < feedId) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+
+		return -(low + 1);
+	}
+
+	private void insert(int feedId) {
+
+		int pos = this.indexOf(feedId);
+
+		if (pos >= 0) {
+			return;
+		}
+
+		pos = -pos - 1;
+
+		if (this.size == this.feedIds.length) {
+
+			/* Full: the oldest feedId falls off, unless the new one is even older. */
+			this.complete = false;
+
+			if (pos == this.size) {
+				return;
+			}
+
+			this.size--;
+		}
+
+		System.arraycopy(this.feedIds, pos, this.feedIds, pos + 1, this.size - pos);
+		this.feedIds[pos] = feedId;
+		this.size++;
+	}
+
+}
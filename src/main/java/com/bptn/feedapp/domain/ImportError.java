@@ -0,0 +1,33 @@
+package com.bptn.feedapp.domain;
+
+/* A row rejected by the user import, line is the 1-based line number in the uploaded file. */
+public class ImportError {
+
+	int line;
+	String username;
+	String error;
+
+	public ImportError(int line, String username, String error) {
+		this.line = line;
+		this.username = username;
+		this.error = error;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return "ImportError [line=" + line + ", username=" + username + ", error=" + error + "]";
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.bptn.feedapp.domain;
+
+/* Running totals of a user import, reported after every chunk. */
+public class ImportProgress {
+
+	int processed;
+	int imported;
+	int failed;
+	boolean done;
+
+	public int getProcessed() {
+		return processed;
+	}
+
+	public int getImported() {
+		return imported;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public boolean isDone() {
+		return done;
+	}
+
+	public void setDone(boolean done) {
+		this.done = done;
+	}
+
+	public void add(int imported, int failed) {
+		this.imported += imported;
+		this.failed += failed;
+		this.processed += imported + failed;
+	}
+
+	@Override
+	public String toString() {
+		return "ImportProgress [processed=" + processed + ", imported=" + imported + ", failed=" + failed + ", done="
+				+ done + "]";
+	}
+
+}
@@ -0,0 +1,425 @@
+package com.bptn.feedapp.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import com.bptn.feedapp.exception.domain.InvalidCursorException;
+
+/*
+ * An inverted index over the feed content ranked with BM25. Every term keeps its postings
+ * as two int arrays sorted by feedId (feedIds and term frequencies), the document lengths
+ * are an int array indexed by feedId. A query walks the postings of its terms side by side
+ * and keeps the best hits in a bounded heap, no per-document objects are created.
+ *
+ * BM25 scores depend on the corpus statistics, which change as feeds are added and removed.
+ * A cursor carries the statistics its first page was scored with and every later page is
+ * scored with them again, so a feed keeps its score and rank across the pages: none is
+ * repeated or skipped. Feeds added since the first page are ranked by the same statistics.
+ */
+public class SearchIndex {
+
+	public static final int MAX_TERM_LENGTH = 64;
+	public static final int MAX_QUERY_TERMS = 8;
+
+	static final float K1 = 1.2f;
+	static final float B = 0.75f;
+
+	/* The corpus statistics a query was scored with, frequencies holds the document frequency of every query term. */
+	public record Statistics(int documents, long totalLength, int[] frequencies) {
+	}
+
+	/* A ranked hit, hits are ordered by score and then by the newest feed. */
+	public record Hit(float score, int feedId, Statistics statistics) {
+
+		/* The float survives the round trip through its decimal string exactly. */
+		public String toCursor() {
+
+			String frequencies = Arrays.stream(this.statistics.frequencies()).mapToObj(String::valueOf).collect(Collectors.joining(","));
+			String cursor = String.format("%s:%d:%d:%d:%s", this.score, this.feedId, this.statistics.documents(),
+					this.statistics.totalLength(), frequencies);
+
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+		}
+
+		public static Optional<Hit> fromCursor(String cursor) {
+
+			if (Optional.ofNullable(cursor).filter(c -> !c.isBlank()).isEmpty()) {
+				return Optional.empty();
+			}
+
+			try {
+				String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+
+				Statistics statistics = new Statistics(Integer.parseInt(parts[2]), Long.parseLong(parts[3]),
+						Arrays.stream(parts[4].split(",")).mapToInt(Integer::parseInt).toArray());
+
+				if (statistics.documents() <= 0 || statistics.totalLength() <= 0) {
+					throw new IllegalArgumentException("empty corpus");
+				}
+
+				return Optional.of(new Hit(Float.parseFloat(parts[0]), Integer.parseInt(parts[1]), statistics));
+			} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+				throw new InvalidCursorException(String.format("Invalid cursor, %s", cursor));
+			}
+		}
+	}
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<String, Postings> terms = new HashMap<>();
+
+	/* 0 means the feed is not indexed. */
+	private int[] lengths = new int[1024];
+
+	private int documents;
+	private long totalLength;
+
+	public int getDocuments() {
+
+		this.lock.readLock().lock();
+
+		try {
+			return this.documents;
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	public int getTerms() {
+
+		this.lock.readLock().lock();
+
+		try {
+			return this.terms.size();
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/* Adding a feed twice is a no-op, the startup load may overlap with new feeds. */
+	public void add(int feedId, String text) {
+
+		Map<String, Integer> frequencies = frequencies(text);
+		int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+		if (length == 0) {
+			return;
+		}
+
+		this.lock.writeLock().lock();
+
+		try {
+			if (feedId < this.lengths.length && this.lengths[feedId] != 0) {
+				return;
+			}
+
+			if (feedId >= this.lengths.length) {
+				this.lengths = Arrays.copyOf(this.lengths, Math.max(feedId + 1, this.lengths.length * 2));
+			}
+
+			frequencies.forEach((term, tf) -> this.terms.computeIfAbsent(term, t -> new Postings()).add(feedId, tf));
+
+			this.lengths[feedId] = length;
+			this.documents++;
+			this.totalLength += length;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/* The text must be the one the feed was indexed with, it tells which postings to drop. */
+	public void remove(int feedId, String text) {
+
+		Map<String, Integer> frequencies = frequencies(text);
+
+		this.lock.writeLock().lock();
+
+		try {
+			if (feedId >= this.lengths.length || this.lengths[feedId] == 0) {
+				return;
+			}
+
+			frequencies.keySet().forEach(term -> {
+				Postings postings = this.terms.get(term);
+
+				if (postings != null && postings.remove(feedId) && postings.size == 0) {
+					this.terms.remove(term);
+				}
+			});
+
+			this.documents--;
+			this.totalLength -= this.lengths[feedId];
+			this.lengths[feedId] = 0;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/*
+	 * Up to limit hits for any of the query terms, best first. A page after the first one
+	 * passes the last hit it returned, only hits ranked below it with the statistics of the
+	 * first page are considered.
+	 */
+	public List<Hit> search(String query, Hit after, int limit) {
+
+		List<String> queryTerms = tokenize(query).stream().distinct().limit(MAX_QUERY_TERMS).toList();
+
+		if (after != null && after.statistics().frequencies().length != queryTerms.size()) {
+			throw new InvalidCursorException(String.format("Invalid cursor, not a cursor of the query %s", query));
+		}
+
+		this.lock.readLock().lock();
+
+		try {
+			Statistics statistics = after != null ? after.statistics()
+					: new Statistics(this.documents, this.totalLength,
+							queryTerms.stream().map(this.terms::get).mapToInt(postings -> postings == null ? 0 : postings.size).toArray());
+
+			Postings[] lists = new Postings[queryTerms.size()];
+			float[] idfs = new float[queryTerms.size()];
+			int count = 0;
+
+			for (int i = 0; i < queryTerms.size(); i++) {
+				Postings postings = this.terms.get(queryTerms.get(i));
+				int frequency = statistics.frequencies()[i];
+
+				if (postings != null) {
+					lists[count] = postings;
+					idfs[count++] = (float) Math.log(1 + (statistics.documents() - frequency + 0.5) / (frequency + 0.5));
+				}
+			}
+
+			if (count == 0 || limit <= 0) {
+				return List.of();
+			}
+
+			int[] positions = new int[count];
+			float avgLength = (float) statistics.totalLength() / statistics.documents();
+
+			TopHits top = new TopHits(limit, statistics);
+
+			while (true) {
+
+				/* The smallest feedId under any of the cursors is scored next. */
+				int feedId = Integer.MAX_VALUE;
+
+				for (int i = 0; i < count; i++) {
+					if (positions[i] < lists[i].size) {
+						feedId = Math.min(feedId, lists[i].feedIds[positions[i]]);
+					}
+				}
+
+				if (feedId == Integer.MAX_VALUE) {
+					break;
+				}
+
+				float norm = K1 * (1 - B + B * this.lengths[feedId] / avgLength);
+				float score = 0;
+
+				for (int i = 0; i < count; i++) {
+					Postings postings = lists[i];
+
+					if (positions[i] < postings.size && postings.feedIds[positions[i]] == feedId) {
+						int tf = postings.frequencies[positions[i]++];
+						score += idfs[i] * tf * (K1 + 1) / (tf + norm);
+					}
+				}
+
+				if (after == null || score < after.score() || (score == after.score() && feedId < after.feedId())) {
+					top.offer(score, feedId);
+				}
+			}
+
+			return top.sorted();
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/* Lower-cased runs of letters and digits, anything else separates two terms. */
+	public static List<String> tokenize(String text) {
+
+		List<String> tokens = new ArrayList<>();
+
+		if (text == null) {
+			return tokens;
+		}
+
+		String lower = text.toLowerCase(Locale.ROOT);
+		int start = -1;
+
+		for (int i = 0; i <= lower.length(); i++) {
+
+			boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+
+			if (word && start < 0) {
+				start = i;
+			} else if (!word && start >= 0) {
+				if (i - start <= MAX_TERM_LENGTH) {
+					tokens.add(lower.substring(start, i));
+				}
+				start = -1;
+			}
+		}
+
+		return tokens;
+	}
+
+	private static Map<String, Integer> frequencies(String text) {
+
+		Map<String, Integer> frequencies = new LinkedHashMap<>();
+
+		tokenize(text).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+		return frequencies;
+	}
+
+	/* The feeds holding one term, sorted by feedId so new feeds are appended. */
+	static final class Postings {
+
+		int[] feedIds = new int[2];
+		int[] frequencies = new int[2];
+		int size;
+
+		void add(int feedId, int tf) {
+
+			int pos = this.size == 0 || this.feedIds[this.size - 1] < feedId ? this.size
+					: Arrays.binarySearch(this.feedIds, 0, this.size, feedId);
+
+			if (pos < this.size && pos >= 0) {
+				return;
+			}
+
+			pos = pos < 0 ? -pos - 1 : pos;
+
+			if (this.size == this.feedIds.length) {
+				this.feedIds = Arrays.copyOf(this.feedIds, this.size * 2);
+				this.frequencies = Arrays.copyOf(this.frequencies, this.size * 2);
+			}
+
+			System.arraycopy(this.feedIds, pos, this.feedIds, pos + 1, this.size - pos);
+			System.arraycopy(this.frequencies, pos, this.frequencies, pos + 1, this.size - pos);
+
+			this.feedIds[pos] = feedId;
+			this.frequencies[pos] = tf;
+			this.size++;
+		}
+
+		boolean remove(int feedId) {
+
+			int pos = Arrays.binarySearch(this.feedIds, 0, this.size, feedId);
+
+			if (pos < 0) {
+				return false;
+			}
+
+			System.arraycopy(this.feedIds, pos + 1, this.feedIds, pos, this.size - pos - 1);
+			System.arraycopy(this.frequencies, pos + 1, this.frequencies, pos, this.size - pos - 1);
+			this.size--;
+
+			return true;
+		}
+	}
+
+	/* A min-heap of the best hits seen so far, the weakest one sits at the root. */
+	static final class TopHits {
+
+		final float[] scores;
+		final int[] feedIds;
+		final Statistics statistics;
+		int size;
+
+		TopHits(int limit, Statistics statistics) {
+			this.scores = new float[limit];
+			this.feedIds = new int[limit];
+			this.statistics = statistics;
+		}
+
+		void offer(float score, int feedId) {
+
+			if (this.size < this.scores.length) {
+				this.scores[this.size] = score;
+				this.feedIds[this.size] = feedId;
+				this.up(this.size++);
+			} else if (this.weaker(this.scores[0], this.feedIds[0], score, feedId)) {
+				this.scores[0] = score;
+				this.feedIds[0] = feedId;
+				this.down(0);
+			}
+		}
+
+		List<Hit> sorted() {
+
+			Hit[] hits = new Hit[this.size];
+
+			for (int i = this.size - 1; i >= 0; i--) {
+				hits[i] = new Hit(this.scores[0], this.feedIds[0], this.statistics);
+				this.swap(0, i);
+				this.size = i;
+				this.down(0);
+			}
+
+			return Arrays.asList(hits);
+		}
+
+		private boolean weaker(float score, int feedId, float otherScore, int otherFeedId) {
+			return score < otherScore || (score == otherScore && feedId < otherFeedId);
+		}
+
+		private void up(int i) {
+
+			while (i > 0) {
+				int parent = (i - 1) / 2;
+
+				if (!this.weaker(this.scores[i], this.feedIds[i], this.scores[parent], this.feedIds[parent])) {
+					return;
+				}
+
+				this.swap(i, parent);
+				i = parent;
+			}
+		}
+
+		private void down(int i) {
+
+			while (true) {
+				int weakest = i;
+
+				for (int child = 2 * i + 1; child <= 2 * i + 2 && child < this.size; child++) {
+					if (this.weaker(this.scores[child], this.feedIds[child], this.scores[weakest], this.feedIds[weakest])) {
+						weakest = child;
+					}
+				}
+
+				if (weakest == i) {
+					return;
+				}
+
+				this.swap(i, weakest);
+				i = weakest;
+			}
+		}
+
+		private void swap(int i, int j) {
+
+			float score = this.scores[i];
+			this.scores[i] = this.scores[j];
+			this.scores[j] = score;
+
+			int feedId = this.feedIds[i];
+			this.feedIds[i] = this.feedIds[j];
+			this.feedIds[j] = feedId;
+		}
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.bptn.feedapp.domain;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * A token bucket holding up to capacity tokens and refilled with one token every interval.
+ * The whole state is the time at which the bucket would be full again, so taking a token is
+ * a single compare-and-set and never blocks.
+ */
+public class TokenBucket {
+
+	private final long capacity;
+	private final long interval;
+
+	private final AtomicLong fullAt;
+
+	public TokenBucket(long capacity, long interval, long now) {
+		this.capacity = capacity;
+		this.interval = interval;
+		this.fullAt = new AtomicLong(now);
+	}
+
+	/* Takes a token, returns 0 when granted or the nanoseconds until the next token. */
+	public long tryConsume(long now) {
+
+		while (true) {
+
+			long current = this.fullAt.get();
+			long next = Math.max(current, now) + this.interval;
+			long wait = next - now - this.capacity * this.interval;
+
+			if (wait > 0) {
+				return wait;
+			}
+
+			if (this.fullAt.compareAndSet(current, next)) {
+				return 0;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,5 @@
+package com.bptn.feedapp.domain;
+
+/* A tag with the number of feeds that used it within the trending window. */
+public record TrendingTag(String tag, long feedCount) {
+}
@@ -40,6 +40,12 @@ import com.bptn.feedapp.exception.domain.FeedNotFoundException;
 
 import com.bptn.feedapp.exception.domain.FeedNotUserException;
 
+import com.bptn.feedapp.exception.domain.InvalidCursorException;
+import com.bptn.feedapp.exception.domain.InvalidFeedMetaDataException;
+
+import com.bptn.feedapp.exception.domain.TooManyRequestsException;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
 import static org.springframework.http.HttpStatus.METHOD_NOT_ALLOWED;
 import java.util.Objects;
 import org.springframework.http.HttpMethod;
@@ -152,6 +158,21 @@ public class ExceptionHandling implements ErrorController {
 		return this.createHttpResponse(BAD_REQUEST, ex.getMessage());
 	}
 	
+	@ExceptionHandler(InvalidFeedMetaDataException.class)
+	public ResponseEntity<HttpResponse> invalidFeedMetaDataException(InvalidFeedMetaDataException ex) {
+		return this.createHttpResponse(BAD_REQUEST, ex.getMessage());
+	}
+	
+	@ExceptionHandler(InvalidCursorException.class)
+	public ResponseEntity<HttpResponse> invalidCursorException(InvalidCursorException ex) {
+		return this.createHttpResponse(BAD_REQUEST, ex.getMessage());
+	}
+	
+	@ExceptionHandler(TooManyRequestsException.class)
+	public ResponseEntity<HttpResponse> tooManyRequestsException(TooManyRequestsException ex) {
+		return this.createHttpResponse(TOO_MANY_REQUESTS, ex.getMessage());
+	}
+	
 	@ExceptionHandler(HttpRequestMethodNotSupportedException.class)
 	public ResponseEntity<HttpResponse> methodNotSupportedException(HttpRequestMethodNotSupportedException ex) {
 	    HttpMethod supportedMethod = Objects.requireNonNull(ex.getSupportedHttpMethods()).iterator().next();
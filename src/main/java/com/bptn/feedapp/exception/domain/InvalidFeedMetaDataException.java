@@ -0,0 +1,10 @@
+package com.bptn.feedapp.exception.domain;
+
+public class InvalidFeedMetaDataException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidFeedMetaDataException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,10 @@
+package com.bptn.feedapp.exception.domain;
+
+public class TooManyRequestsException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public TooManyRequestsException(String message) {
+		super(message);
+	}
+}
@@ -1,6 +1,11 @@
 package com.bptn.feedapp.filter;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +18,9 @@ import org.springframework.web.servlet.HandlerExceptionResolver;
 import com.bptn.feedapp.provider.ResourceProvider;
 import com.bptn.feedapp.security.JwtService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,9 +28,10 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 
-import java.util.Optional;
 
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 import static org.springframework.http.HttpMethod.OPTIONS;
@@ -44,26 +53,64 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
 	@Qualifier("handlerExceptionResolver")
 	HandlerExceptionResolver resolver;
 
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	private Timer verifiedTimer;
+	private Timer rejectedTimer;
+
+	private Set<String> adminUsernames;
+
+	@PostConstruct
+	public void init() {
+		this.adminUsernames = Arrays.stream(this.provider.getAdminUsernames()).map(String::trim)
+				.filter(username -> !username.isEmpty()).collect(Collectors.toUnmodifiableSet());
+
+		this.verifiedTimer = Timer.builder("jwt.verification").tag("outcome", "verified").register(this.meterRegistry);
+		this.rejectedTimer = Timer.builder("jwt.verification").tag("outcome", "rejected").register(this.meterRegistry);
+	}
+
+	/* Validate the JWT and get the username from it. */
+	private String getSubject(String token) {
+
+		long start = System.nanoTime();
+
+		try {
+			String username = this.jwtService.getSubject(token);
+			this.verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			return username;
+
+		} catch (JWTVerificationException ex) {
+			this.rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			throw ex;
+		}
+	}
+
 	private Authentication getAuthentication(String username, HttpServletRequest req) {
+		List<GrantedAuthority> authorities = this.adminUsernames.contains(username)
+				? List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))
+				: null;
 		UsernamePasswordAuthenticationToken userPasswordAuthToken = new UsernamePasswordAuthenticationToken(username,
-				null, null);
+				null, authorities);
 		userPasswordAuthToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
 		return userPasswordAuthToken;
 	}
 	
 	private boolean isJwtPrefixValid(String header) {
     	
-		logger.debug("Authorization Header: {}", Optional.ofNullable(header).orElse("Not Present"));
+		/* The token itself is a credential and is never logged */
+		logger.debug("Authorization Header: {}", header == null ? "Not Present" : "Present");
 		    	
-		return Optional.ofNullable(header)
-		    			     .filter(h -> h.startsWith(this.provider.getJwtPrefix()))
-		    			     .isPresent();
+		return header != null && header.startsWith(this.provider.getJwtPrefix());
 	}
 
 	@Override
 	protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain filterChain) throws ServletException, IOException {
 
-	    	logger.debug("Running Jwt Filter, URL: {}, Method: {}", req.getRequestURL(), req.getMethod());
+	    	/* Guarded, getRequestURL() builds a new buffer on every call */
+	    	if (logger.isDebugEnabled()) {
+	    		logger.debug("Running Jwt Filter, URL: {}, Method: {}", req.getRequestURL(), req.getMethod());
+	    	}
 	    	   	    			
 	    	try {    				
 	    		
@@ -75,7 +122,7 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
 	    			/* Check if the JWT is present in the Header and starts with the JWT Prefix. */
 	    			if ( this.isJwtPrefixValid(header) ){ 
 	    				/* Validate the JWT and get the username from it. */
-	    				String username = this.jwtService.getSubject(header.substring(7)); 
+	    				String username = this.getSubject(header.substring(7)); 
 	    				
 	    				/* Set the username in the Spring Security context for later use. */
 	    		SecurityContextHolder.getContext().setAuthentication(this.getAuthentication(username, req));			
@@ -0,0 +1,139 @@
+package com.bptn.feedapp.filter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import com.bptn.feedapp.domain.TokenBucket;
+import com.bptn.feedapp.exception.domain.TooManyRequestsException;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/*
+ * Token bucket rate limits on the write endpoints, one bucket per endpoint and client. The
+ * client is the JWT subject set by JwtAuthorizationFilter, or the remote address when the
+ * request is not authenticated. Behind a load balancer the remote address is the client's
+ * one from X-Forwarded-For, Tomcat's RemoteIpValve (server.forward-headers-strategy) takes
+ * it from trusted proxies only. Rejected requests are answered before reaching any
+ * controller, so they never hold a database connection.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private static final String TOO_MANY_REQUESTS = "Too many requests. Please try again in %d seconds";
+
+	@Autowired
+	ResourceProvider provider;
+
+	@Autowired
+	@Qualifier("handlerExceptionResolver")
+	HandlerExceptionResolver resolver;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	private List<Budget> budgets;
+
+	/* An endpoint, its limits and the buckets of the clients calling it. */
+	private static class Budget {
+
+		AntPathRequestMatcher matcher;
+		long capacity;
+		long interval;
+		Cache<String, TokenBucket> buckets;
+		Counter rejected;
+	}
+
+	@PostConstruct
+	public void init() {
+
+		this.budgets = Arrays.stream(this.provider.getRateLimitBudgets()).map(this::budget).toList();
+	}
+
+	/* Parses "METHOD pattern burst requests-per-minute". */
+	private Budget budget(String spec) {
+
+		String[] fields = spec.trim().split("\\s+");
+
+		Budget budget = new Budget();
+
+		budget.matcher = new AntPathRequestMatcher(fields[1], fields[0]);
+		budget.capacity = Long.parseLong(fields[2]);
+		budget.interval = TimeUnit.MINUTES.toNanos(1) / Long.parseLong(fields[3]);
+		budget.buckets = Caffeine.newBuilder().maximumSize(this.provider.getRateLimitClients())
+				.expireAfterAccess(this.provider.getRateLimitIdleExpiration(), TimeUnit.MILLISECONDS).build();
+		budget.rejected = Counter.builder("ratelimit.rejected").description("Requests rejected by the rate limiter")
+				.tag("endpoint", fields[0] + " " + fields[1]).register(this.meterRegistry);
+
+		return budget;
+	}
+
+	private String getClient(HttpServletRequest req) {
+
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+		return authentication != null ? "user:" + authentication.getName() : "ip:" + req.getRemoteAddr();
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest req) {
+		return !this.provider.isRateLimitEnabled();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		for (Budget budget : this.budgets) {
+
+			if (budget.matcher.matches(req)) {
+
+				long now = System.nanoTime();
+				long wait = budget.buckets.get(this.getClient(req), client -> new TokenBucket(budget.capacity, budget.interval, now))
+						.tryConsume(now);
+
+				if (wait > 0) {
+
+					long seconds = TimeUnit.NANOSECONDS.toSeconds(wait - 1) + 1;
+
+					logger.debug("Rate Limit exceeded: {}, retry in {}s", this.getClient(req), seconds);
+
+					budget.rejected.increment();
+
+					res.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+					this.resolver.resolveException(req, res, null, new TooManyRequestsException(String.format(TOO_MANY_REQUESTS, seconds)));
+					return;
+				}
+
+				break;
+			}
+		}
+
+		filterChain.doFilter(req, res);
+	}
+
+}
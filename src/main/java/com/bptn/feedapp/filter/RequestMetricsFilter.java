@@ -0,0 +1,47 @@
+package com.bptn.feedapp.filter;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.bptn.feedapp.config.SqlStatementCounter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/* Records the number of SQL statements run by every request, tagged like http.server.requests. */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		SqlStatementCounter.reset();
+
+		try {
+			filterChain.doFilter(req, res);
+		} finally {
+
+			Object uri = req.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+			DistributionSummary.builder("http.server.requests.sql").description("SQL statements per request")
+					.tag("uri", uri == null ? "UNKNOWN" : uri.toString()).tag("method", req.getMethod())
+					.register(this.meterRegistry).record(SqlStatementCounter.get());
+		}
+	}
+
+}
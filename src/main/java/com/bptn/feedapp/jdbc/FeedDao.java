@@ -0,0 +1,37 @@
+package com.bptn.feedapp.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.function.ObjIntConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class FeedDao {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	// stream the content of every feed through a JDBC cursor, only fetchSize rows are held in memory
+	// the transaction is required, Postgres ignores the fetch size in auto-commit mode
+	@Transactional(readOnly = true)
+	public void streamContent(int fetchSize, ObjIntConsumer<String> consumer) {
+
+		String sql = "SELECT \"feedId\", content FROM \"Feed\" ORDER BY \"feedId\"";
+
+		this.jdbcTemplate.query(con -> {
+			PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(fetchSize);
+			return ps;
+		}, (RowCallbackHandler) rs -> consumer.accept(rs.getString(2), rs.getInt(1)));
+	}
+
+}
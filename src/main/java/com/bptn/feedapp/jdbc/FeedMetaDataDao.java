@@ -0,0 +1,84 @@
+package com.bptn.feedapp.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bptn.feedapp.jpa.FeedMetaData;
+
+@Repository
+public class FeedMetaDataDao {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	// the row is only inserted while the feed exists and, for a like, while the user has not liked it yet
+	static final String INSERT_FEED_META_DATA = "INSERT INTO \"FeedMetaData\" (\"feedId\", \"actionUserId\", \"isLike\", comment, \"likeUserId\", \"createdOn\") "
+			+ "SELECT ?, ?, ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM \"Feed\" WHERE \"feedId\" = ?) "
+			+ "AND NOT EXISTS (SELECT 1 FROM \"FeedMetaData\" WHERE \"feedId\" = ? AND \"likeUserId\" = ?)";
+
+	static final String UPDATE_FEED_COUNTS = "UPDATE \"Feed\" SET \"likeCount\" = \"likeCount\" + ?, \"commentCount\" = \"commentCount\" + ? WHERE \"feedId\" = ?";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	private void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+
+		if (value == null) {
+			ps.setNull(index, Types.INTEGER);
+		} else {
+			ps.setInt(index, value);
+		}
+	}
+
+	// insert buffered likes and comments in one batch, then bump the counters with one update per feed
+	// returns the feedIds that changed
+	@Transactional
+	public List<Integer> createFeedMetaData(List<FeedMetaData> batch) {
+
+		int[][] inserted = this.jdbcTemplate.batchUpdate(INSERT_FEED_META_DATA, batch, batch.size(), (ps, meta) -> {
+			int feedId = meta.getFeed().getFeedId();
+
+			ps.setInt(1, feedId);
+			ps.setInt(2, meta.getUser().getUserId());
+			ps.setBoolean(3, meta.getIsLike());
+			ps.setString(4, meta.getComment());
+			this.setInteger(ps, 5, meta.getLikeUserId());
+			ps.setTimestamp(6, meta.getCreatedOn());
+			ps.setInt(7, feedId);
+			ps.setInt(8, feedId);
+			this.setInteger(ps, 9, meta.getLikeUserId());
+		});
+
+		/* Sorted by feedId, concurrent flushes then lock the Feed rows in the same order */
+		Map<Integer, int[]> counts = new TreeMap<>();
+
+		for (int i = 0; i < batch.size(); i++) {
+
+			if (inserted[0][i] != 0) {
+				FeedMetaData meta = batch.get(i);
+				counts.computeIfAbsent(meta.getFeed().getFeedId(), feedId -> new int[2])[meta.getIsLike() ? 0 : 1]++;
+			}
+		}
+
+		List<Object[]> updates = new ArrayList<>();
+		counts.forEach((feedId, count) -> updates.add(new Object[] { count[0], count[1], feedId }));
+
+		this.jdbcTemplate.batchUpdate(UPDATE_FEED_COUNTS, updates);
+
+		logger.debug("FeedMetaData Created: {} of {}, Feeds: {}", updates.stream().mapToInt(u -> (int) u[0] + (int) u[1]).sum(), batch.size(), counts.size());
+
+		return new ArrayList<>(counts.keySet());
+	}
+
+}
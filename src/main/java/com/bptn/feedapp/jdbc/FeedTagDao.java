@@ -0,0 +1,101 @@
+package com.bptn.feedapp.jdbc;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bptn.feedapp.domain.TrendingTag;
+
+@Repository
+public class FeedTagDao {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	static final String INSERT_FEED_TAG = "INSERT INTO \"FeedTag\" (tag, \"feedId\") VALUES (?, ?)";
+
+	static final String INSERT_FEED_MENTION = "INSERT INTO \"FeedMention\" (\"userId\", \"feedId\") VALUES (?, ?)";
+
+	static final String INCREMENT_TAG_COUNT = "UPDATE \"TagCount\" SET \"feedCount\" = \"feedCount\" + ? WHERE tag = ? AND \"createdHour\" = ?";
+
+	static final String INSERT_TAG_COUNT = "INSERT INTO \"TagCount\" (tag, \"createdHour\", \"feedCount\") VALUES (?, ?, 1)";
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	// index the tags and mentions of a new feed and bump the count of each tag for the hour it was created
+	// the first feed of a tag in an hour inserts the count row, two of them at once fail with a DuplicateKeyException
+	@Transactional
+	public void index(int feedId, int createdHour, Collection<String> tags, Collection<Integer> userIds) {
+
+		this.jdbcTemplate.batchUpdate(INSERT_FEED_TAG, tags, tags.size(), (ps, tag) -> {
+			ps.setString(1, tag);
+			ps.setInt(2, feedId);
+		});
+
+		this.jdbcTemplate.batchUpdate(INSERT_FEED_MENTION, userIds, userIds.size(), (ps, userId) -> {
+			ps.setInt(1, userId);
+			ps.setInt(2, feedId);
+		});
+
+		/* Sorted, concurrent feeds then lock the count rows in the same order */
+		for (String tag : new TreeSet<>(tags)) {
+
+			if (this.jdbcTemplate.update(INCREMENT_TAG_COUNT, 1, tag, createdHour) == 0) {
+				this.jdbcTemplate.update(INSERT_TAG_COUNT, tag, createdHour);
+			}
+		}
+
+		logger.debug("Feed Tags indexed, feedId: {}, tags: {}, mentions: {}", feedId, tags.size(), userIds.size());
+	}
+
+	// drop the rows of a deleted feed, only the tags it was indexed under are counted down
+	@Transactional
+	public void remove(int feedId, int createdHour, Collection<String> tags, Collection<Integer> userIds) {
+
+		for (String tag : new TreeSet<>(tags)) {
+
+			if (this.jdbcTemplate.update("DELETE FROM \"FeedTag\" WHERE tag = ? AND \"feedId\" = ?", tag, feedId) != 0) {
+				this.jdbcTemplate.update(INCREMENT_TAG_COUNT, -1, tag, createdHour);
+			}
+		}
+
+		userIds.forEach(userId -> this.jdbcTemplate.update("DELETE FROM \"FeedMention\" WHERE \"userId\" = ? AND \"feedId\" = ?", userId, feedId));
+	}
+
+	// keyset pages newest first, both are answered from the (key, feedId) index alone
+	public List<Integer> findFeedIdsByTag(String tag, Integer before, int limit) {
+
+		String sql = "SELECT \"feedId\" FROM \"FeedTag\" WHERE tag = ? AND \"feedId\" < ? ORDER BY \"feedId\" DESC LIMIT ?";
+
+		return this.jdbcTemplate.queryForList(sql, Integer.class, tag, before == null ? Integer.MAX_VALUE : before, limit);
+	}
+
+	public List<Integer> findFeedIdsByMention(int userId, Integer before, int limit) {
+
+		String sql = "SELECT \"feedId\" FROM \"FeedMention\" WHERE \"userId\" = ? AND \"feedId\" < ? ORDER BY \"feedId\" DESC LIMIT ?";
+
+		return this.jdbcTemplate.queryForList(sql, Integer.class, userId, before == null ? Integer.MAX_VALUE : before, limit);
+	}
+
+	// the most used tags since the given hour, only the count rows of the window are read
+	public List<TrendingTag> findTrending(int fromHour, int limit) {
+
+		String sql = "SELECT tag, SUM(\"feedCount\") AS total FROM \"TagCount\" WHERE \"createdHour\" >= ? "
+				+ "GROUP BY tag HAVING SUM(\"feedCount\") > 0 ORDER BY total DESC, tag LIMIT ?";
+
+		return this.jdbcTemplate.query(sql, (rs, rowNum) -> new TrendingTag(rs.getString(1), rs.getLong(2)), fromHour, limit);
+	}
+
+	// count rows older than the trending window are never read again
+	public int deleteCountsBefore(int hour) {
+		return this.jdbcTemplate.update("DELETE FROM \"TagCount\" WHERE \"createdHour\" < ?", hour);
+	}
+
+}
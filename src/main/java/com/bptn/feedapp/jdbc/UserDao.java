@@ -1,21 +1,39 @@
 package com.bptn.feedapp.jdbc;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bptn.feedapp.jpa.EmailOutbox;
+import com.bptn.feedapp.jpa.User;
 
 @Repository
 public class UserDao {
 
 	final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+	static final String INSERT_USER = "INSERT INTO \"User\" (\"firstName\", \"lastName\", username, phone, \"emailId\", password, \"emailVerified\", \"createdOn\") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
 	@Autowired
 	JdbcTemplate jdbcTemplate;
 
+	@Autowired
+	NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
 	// retrieve all the users from the "User" table
 	public List<UserBean> listUsers() {
 		String sql = "SELECT * FROM \"User\"";
@@ -24,6 +42,24 @@ public class UserDao {
 
 	}
 
+	// stream every user with its profile through a JDBC cursor, only fetchSize rows are held in memory
+	// the transaction is required, Postgres ignores the fetch size in auto-commit mode
+	@Transactional(readOnly = true)
+	public void streamUsers(int fetchSize, Consumer<User> consumer) {
+
+		String sql = "SELECT u.\"userId\", u.\"firstName\", u.\"lastName\", u.username, u.phone, u.\"emailId\", u.\"emailVerified\", u.\"createdOn\", "
+				+ "p.\"profileId\", p.bio, p.city, p.country, p.headline, p.picture "
+				+ "FROM \"User\" u LEFT JOIN \"Profile\" p ON p.\"userId\" = u.\"userId\" ORDER BY u.\"userId\"";
+
+		UserProfileMapper mapper = new UserProfileMapper();
+
+		this.jdbcTemplate.query(con -> {
+			PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(fetchSize);
+			return ps;
+		}, (RowCallbackHandler) rs -> consumer.accept(mapper.mapRow(rs, 0)));
+	}
+
 	// get a record from the "User" table by using username
 	public UserBean findByUsername(String username) {
 
@@ -42,7 +78,7 @@ public class UserDao {
 	//create a new user into the "User" table using the UserBean class
 	public void createUser(UserBean user) {
 
-		String sql = "INSERT INTO \"User\" (\"firstName\", \"lastName\", username, phone, \"emailId\", password, \"emailVerified\", \"createdOn\") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+		String sql = INSERT_USER;
 
 		logger.debug("Insert Query: {}", sql);
 
@@ -52,4 +88,43 @@ public class UserDao {
 
 	}
 
+	//create all the users in one transaction, sent to the DB as a single JDBC batch
+	//their verification emails are queued in the same transaction, a user is never left without one
+	@Transactional
+	public void createUsers(List<UserBean> users) {
+
+		this.jdbcTemplate.batchUpdate(INSERT_USER, users, users.size(), (ps, user) -> {
+			ps.setString(1, user.getFirstName());
+			ps.setString(2, user.getLastName());
+			ps.setString(3, user.getUsername());
+			ps.setString(4, user.getPhone());
+			ps.setString(5, user.getEmailId());
+			ps.setString(6, user.getPassword());
+			ps.setBoolean(7, user.getEmailVerified());
+			ps.setTimestamp(8, user.getCreatedOn());
+		});
+
+		String sql = "INSERT INTO \"EmailOutbox\" (\"emailType\", status, attempts, \"createdOn\", \"nextAttemptOn\", \"userId\") "
+				+ "SELECT :emailType, :status, 0, \"createdOn\", \"createdOn\", \"userId\" FROM \"User\" WHERE username IN (:usernames)";
+
+		this.namedParameterJdbcTemplate.update(sql, Map.of("emailType", EmailOutbox.VERIFY, "status", EmailOutbox.PENDING,
+				"usernames", users.stream().map(UserBean::getUsername).toList()));
+	}
+
+	// the usernames of the list already in the "User" table, one query for the whole list
+	public Set<String> findExistingUsernames(Collection<String> usernames) {
+
+		String sql = "SELECT username FROM \"User\" WHERE username IN (:usernames)";
+
+		return new HashSet<>(this.namedParameterJdbcTemplate.queryForList(sql, Map.of("usernames", usernames), String.class));
+	}
+
+	// the emailIds of the list already in the "User" table, one query for the whole list
+	public Set<String> findExistingEmailIds(Collection<String> emailIds) {
+
+		String sql = "SELECT \"emailId\" FROM \"User\" WHERE \"emailId\" IN (:emailIds)";
+
+		return new HashSet<>(this.namedParameterJdbcTemplate.queryForList(sql, Map.of("emailIds", emailIds), String.class));
+	}
+
 }
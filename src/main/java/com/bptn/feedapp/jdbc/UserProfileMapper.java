@@ -0,0 +1,49 @@
+package com.bptn.feedapp.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import com.bptn.feedapp.jpa.Profile;
+import com.bptn.feedapp.jpa.User;
+
+/* Maps a "User" row left joined with its "Profile" to the detached entities, serialized like the JPA ones. */
+public class UserProfileMapper implements RowMapper<User> {
+
+	@Override
+	public User mapRow(ResultSet rs, int rowNum) throws SQLException {
+
+		/* Create a User object */
+		User user = new User();
+
+		/* Populates the User object with data from the resultSet */
+		user.setUserId(rs.getInt("userId"));
+		user.setFirstName(rs.getString("firstName"));
+		user.setLastName(rs.getString("lastName"));
+		user.setUsername(rs.getString("username"));
+		user.setPhone(rs.getString("phone"));
+		user.setEmailId(rs.getString("emailId"));
+		user.setEmailVerified(rs.getBoolean("emailVerified"));
+		user.setCreatedOn(rs.getTimestamp("createdOn"));
+
+		/* profileId is null when the user has no profile */
+		if (rs.getObject("profileId") != null) {
+
+			Profile profile = new Profile();
+
+			profile.setProfileId(rs.getInt("profileId"));
+			profile.setBio(rs.getString("bio"));
+			profile.setCity(rs.getString("city"));
+			profile.setCountry(rs.getString("country"));
+			profile.setHeadline(rs.getString("headline"));
+			profile.setPicture(rs.getString("picture"));
+
+			user.setProfile(profile);
+		}
+
+		/* Return the populated User object */
+		return user;
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.bptn.feedapp.jpa;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name="\"EmailOutbox\"", indexes=@Index(name="\"EmailOutbox_status_nextAttemptOn_idx\"", columnList="status, \"nextAttemptOn\""))
+public class EmailOutbox implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	
+	public static final String VERIFY = "VERIFY";
+	public static final String RESET = "RESET";
+	
+	public static final String PENDING = "PENDING";
+	public static final String SENDING = "SENDING";
+	public static final String SENT = "SENT";
+	public static final String FAILED = "FAILED";
+	
+	@Id
+	@GeneratedValue(strategy=GenerationType.IDENTITY)
+	@Column(name="\"emailOutboxId\"")
+	private Integer emailOutboxId;
+	
+	@Column(name="\"emailType\"")
+	private String emailType;
+	
+	private String status;
+	
+	private Integer attempts;
+	
+	@Column(name="\"lastError\"")
+	private String lastError;
+	
+	@Column(name="\"nextAttemptOn\"")
+	private Timestamp nextAttemptOn;
+	
+	@Column(name="\"sentOn\"")
+	private Timestamp sentOn;
+	
+	@Column(name="\"createdOn\"")
+	private Timestamp createdOn;
+	
+	@ManyToOne
+	@JoinColumn(name="\"userId\"")
+	private User user;
+	
+	public EmailOutbox() {
+		
+	}
+
+	public Integer getEmailOutboxId() {
+		return emailOutboxId;
+	}
+
+	public void setEmailOutboxId(Integer emailOutboxId) {
+		this.emailOutboxId = emailOutboxId;
+	}
+
+	public String getEmailType() {
+		return emailType;
+	}
+
+	public void setEmailType(String emailType) {
+		this.emailType = emailType;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public Integer getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(Integer attempts) {
+		this.attempts = attempts;
+	}
+
+	public String getLastError() {
+		return lastError;
+	}
+
+	public void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+
+	public Timestamp getNextAttemptOn() {
+		return nextAttemptOn;
+	}
+
+	public void setNextAttemptOn(Timestamp nextAttemptOn) {
+		this.nextAttemptOn = nextAttemptOn;
+	}
+
+	public Timestamp getSentOn() {
+		return sentOn;
+	}
+
+	public void setSentOn(Timestamp sentOn) {
+		this.sentOn = sentOn;
+	}
+
+	public Timestamp getCreatedOn() {
+		return createdOn;
+	}
+
+	public void setCreatedOn(Timestamp createdOn) {
+		this.createdOn = createdOn;
+	}
+
+	public User getUser() {
+		return user;
+	}
+
+	public void setUser(User user) {
+		this.user = user;
+	}
+
+	@Override
+	public String toString() {
+		return "EmailOutbox [emailOutboxId=" + emailOutboxId + ", emailType=" + emailType + ", status=" + status
+				+ ", attempts=" + attempts + ", nextAttemptOn=" + nextAttemptOn + "]";
+	}
+
+}
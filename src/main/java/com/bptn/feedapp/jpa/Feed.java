@@ -4,8 +4,13 @@ import java.io.Serializable;
 import java.sql.Timestamp;
 import java.util.List;
 
+import org.hibernate.Hibernate;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
@@ -14,13 +19,14 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name="\"Feed\"")
+@Table(name="\"Feed\"", indexes=@Index(name="\"Feed_userId_feedId_idx\"", columnList="\"userId\", \"feedId\""))
 public class Feed implements Serializable {
 
 	private static final long serialVersionUID = 1L;
@@ -38,12 +44,19 @@ public class Feed implements Serializable {
 	@Column(name="\"createdOn\"")
 	private Timestamp createdOn;
 	
+	@JsonProperty(access = Access.READ_ONLY)
+	@Column(name="\"likeCount\"", nullable=false)
+	private Integer likeCount = 0;
+	
+	@JsonProperty(access = Access.READ_ONLY)
+	@Column(name="\"commentCount\"", nullable=false)
+	private Integer commentCount = 0;
+	
 	@ManyToOne
 	@JoinColumn(name="\"userId\"")
 	private User user;
 	
-	@JsonInclude(Include.NON_NULL)
-	@OneToMany(mappedBy="feed", cascade=CascadeType.ALL, fetch=FetchType.EAGER)
+	@OneToMany(mappedBy="feed", cascade=CascadeType.ALL, fetch=FetchType.LAZY)
 	private List<FeedMetaData> feedMetaData;
 	
 	//create default constructor
@@ -92,9 +105,33 @@ public class Feed implements Serializable {
 		this.user = user;
 	}
 
+	public Integer getLikeCount() {
+		return likeCount;
+	}
+
+	public void setLikeCount(Integer likeCount) {
+		this.likeCount = likeCount;
+	}
+
+	public Integer getCommentCount() {
+		return commentCount;
+	}
+
+	public void setCommentCount(Integer commentCount) {
+		this.commentCount = commentCount;
+	}
+
+	@JsonIgnore
 	public List<FeedMetaData> getFeedMetaData() {
 		return feedMetaData;
 	}
+	
+	/* The metadata list is only serialized when it was fetched, timelines carry the counters instead. */
+	@JsonProperty("feedMetaData")
+	@JsonInclude(Include.NON_NULL)
+	List<FeedMetaData> getLoadedFeedMetaData() {
+		return Hibernate.isInitialized(feedMetaData) ? feedMetaData : null;
+	}
 
 	public void setFeedMetaData(List<FeedMetaData> feedMetaData) {
 		this.feedMetaData = feedMetaData;
@@ -0,0 +1,72 @@
+package com.bptn.feedapp.jpa;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/* One row per user mentioned in a feed. The (userId, feedId) index answers a mentions page on its own. */
+@Entity
+@IdClass(FeedMention.Key.class)
+@Table(name="\"FeedMention\"", indexes=@Index(name="\"FeedMention_userId_feedId_idx\"", columnList="\"userId\", \"feedId\""))
+public class FeedMention implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@Column(name="\"userId\"")
+	private Integer userId;
+	
+	@Id
+	@Column(name="\"feedId\"")
+	private Integer feedId;
+	
+	public FeedMention() {
+		
+	}
+
+	public Integer getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Integer userId) {
+		this.userId = userId;
+	}
+
+	public Integer getFeedId() {
+		return feedId;
+	}
+
+	public void setFeedId(Integer feedId) {
+		this.feedId = feedId;
+	}
+
+	@Override
+	public String toString() {
+		return "FeedMention [userId=" + userId + ", feedId=" + feedId + "]";
+	}
+
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private Integer userId;
+		private Integer feedId;
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key key && Objects.equals(userId, key.userId) && Objects.equals(feedId, key.feedId);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(userId, feedId);
+		}
+	}
+
+}
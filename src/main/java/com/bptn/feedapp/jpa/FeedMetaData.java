@@ -10,12 +10,15 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name="\"FeedMetaData\"")
+@Table(name="\"FeedMetaData\"", uniqueConstraints=@UniqueConstraint(name="\"FeedMetaData_feedId_likeUserId_key\"", columnNames={"\"feedId\"", "\"likeUserId\""}),
+                            indexes=@Index(name="\"FeedMetaData_feedId_feedMetaDataId_idx\"", columnList="\"feedId\", \"feedMetaDataId\""))
 public class FeedMetaData implements Serializable {
 
 	private static final long serialVersionUID = 1L;
@@ -33,6 +36,12 @@ public class FeedMetaData implements Serializable {
 	@Column(name="\"isLike\"")
 	private Boolean isLike;
 	
+	/* Same as actionUserId for likes and null for comments, so the database rejects a second like
+	   from the same user while comments stay unlimited (nulls never collide in a unique key). */
+	@JsonIgnore
+	@Column(name="\"likeUserId\"")
+	private Integer likeUserId;
+	
 	@ManyToOne
 	@JsonIgnore
 	@JoinColumn(name="\"feedId\"")
@@ -89,6 +98,16 @@ public class FeedMetaData implements Serializable {
 	}
 
 
+	public Integer getLikeUserId() {
+		return likeUserId;
+	}
+
+
+	public void setLikeUserId(Integer likeUserId) {
+		this.likeUserId = likeUserId;
+	}
+
+
 	public Feed getFeed() {
 		return feed;
 	}
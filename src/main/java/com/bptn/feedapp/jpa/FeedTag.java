@@ -0,0 +1,74 @@
+package com.bptn.feedapp.jpa;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/* One row per hashtag of a feed. The (tag, feedId) index answers a tag page without reading the Feed table. */
+@Entity
+@IdClass(FeedTag.Key.class)
+@Table(name="\"FeedTag\"", indexes=@Index(name="\"FeedTag_tag_feedId_idx\"", columnList="tag, \"feedId\""))
+public class FeedTag implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	
+	public static final int MAX_TAG_LENGTH = 50;
+	
+	@Id
+	@Column(length=MAX_TAG_LENGTH)
+	private String tag;
+	
+	@Id
+	@Column(name="\"feedId\"")
+	private Integer feedId;
+	
+	public FeedTag() {
+		
+	}
+
+	public String getTag() {
+		return tag;
+	}
+
+	public void setTag(String tag) {
+		this.tag = tag;
+	}
+
+	public Integer getFeedId() {
+		return feedId;
+	}
+
+	public void setFeedId(Integer feedId) {
+		this.feedId = feedId;
+	}
+
+	@Override
+	public String toString() {
+		return "FeedTag [tag=" + tag + ", feedId=" + feedId + "]";
+	}
+
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private String tag;
+		private Integer feedId;
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key key && Objects.equals(tag, key.tag) && Objects.equals(feedId, key.feedId);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(tag, feedId);
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.bptn.feedapp.jpa;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/* Feeds per tag and hour, bumped when a feed is created and lowered when it is deleted. */
+@Entity
+@IdClass(TagCount.Key.class)
+@Table(name="\"TagCount\"", indexes=@Index(name="\"TagCount_createdHour_idx\"", columnList="\"createdHour\""))
+public class TagCount implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@Column(length=FeedTag.MAX_TAG_LENGTH)
+	private String tag;
+	
+	/* Hours since the epoch */
+	@Id
+	@Column(name="\"createdHour\"")
+	private Integer createdHour;
+	
+	@Column(name="\"feedCount\"")
+	private Integer feedCount;
+	
+	public TagCount() {
+		
+	}
+
+	public String getTag() {
+		return tag;
+	}
+
+	public void setTag(String tag) {
+		this.tag = tag;
+	}
+
+	public Integer getCreatedHour() {
+		return createdHour;
+	}
+
+	public void setCreatedHour(Integer createdHour) {
+		this.createdHour = createdHour;
+	}
+
+	public Integer getFeedCount() {
+		return feedCount;
+	}
+
+	public void setFeedCount(Integer feedCount) {
+		this.feedCount = feedCount;
+	}
+
+	@Override
+	public String toString() {
+		return "TagCount [tag=" + tag + ", createdHour=" + createdHour + ", feedCount=" + feedCount + "]";
+	}
+
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private String tag;
+		private Integer createdHour;
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key key && Objects.equals(tag, key.tag) && Objects.equals(createdHour, key.createdHour);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(tag, createdHour);
+		}
+	}
+
+}
@@ -20,9 +20,11 @@ import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name="\"User\"")
+@Table(name="\"User\"", uniqueConstraints={@UniqueConstraint(name="\"User_username_key\"", columnNames="username"),
+                                          @UniqueConstraint(name="\"User_emailId_key\"", columnNames="\"emailId\"")})
 public class User implements Serializable {
 
 	private static final long serialVersionUID = 1L;
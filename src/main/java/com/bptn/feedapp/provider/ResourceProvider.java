@@ -25,9 +25,39 @@ public class ResourceProvider {
 	@Value("${jwt.prefix}")
 	private String jwtPrefix;
 
+	@Value("${jwt.cache.size}")
+	private long jwtCacheSize;
+
 	@Value("${jwt.excluded.urls}")
 	private String[] jwtExcludedUrls;
 
+	@Value("${password.target-hash-time}")
+	private long passwordTargetHashTime;
+
+	@Value("${password.min-cost}")
+	private int passwordMinCost;
+
+	@Value("${password.max-cost}")
+	private int passwordMaxCost;
+
+	@Value("${login.workers}")
+	private int loginWorkers;
+
+	@Value("${login.queue-capacity}")
+	private int loginQueueCapacity;
+
+	@Value("${rate-limit.enabled}")
+	private boolean rateLimitEnabled;
+
+	@Value("${rate-limit.clients}")
+	private long rateLimitClients;
+
+	@Value("${rate-limit.idle-expiration}")
+	private long rateLimitIdleExpiration;
+
+	@Value("${rate-limit.budgets}")
+	private String[] rateLimitBudgets;
+
 	@Value("${client.url}")
 	private String clientUrl;
 
@@ -43,6 +73,99 @@ public class ResourceProvider {
 	@Value("${client.email.reset.expiration}")
 	private long clientResetExpiration;
 
+	@Value("${replica.urls}")
+	private String[] replicaUrls;
+
+	@Value("${replica.pool-size}")
+	private int replicaPoolSize;
+
+	@Value("${replica.max-lag}")
+	private long replicaMaxLag;
+
+	@Value("${replica.lag-query}")
+	private String replicaLagQuery;
+
+	@Value("${admin.usernames}")
+	private String[] adminUsernames;
+
+	@Value("${user.list.fetch-size}")
+	private int userListFetchSize;
+
+	@Value("${user.import.chunk-size}")
+	private int userImportChunkSize;
+
+	@Value("${user.import.workers}")
+	private int userImportWorkers;
+
+	@Value("${email.outbox.enabled}")
+	private boolean emailOutboxEnabled;
+
+	@Value("${email.outbox.batch-size}")
+	private int emailOutboxBatchSize;
+
+	@Value("${email.outbox.workers}")
+	private int emailOutboxWorkers;
+
+	@Value("${email.outbox.queue-capacity}")
+	private int emailOutboxQueueCapacity;
+
+	@Value("${email.outbox.max-attempts}")
+	private int emailOutboxMaxAttempts;
+
+	@Value("${email.outbox.backoff}")
+	private long emailOutboxBackoff;
+
+	@Value("${feed.cache.size}")
+	private long feedCacheSize;
+
+	@Value("${feed.cache.expiration}")
+	private long feedCacheExpiration;
+
+	@Value("${feed.meta.write-behind.enabled}")
+	private boolean feedMetaWriteBehind;
+
+	@Value("${feed.meta.write-behind.stripes}")
+	private int feedMetaStripes;
+
+	@Value("${feed.meta.write-behind.batch-size}")
+	private int feedMetaBatchSize;
+
+	@Value("${feed.meta.write-behind.max-buffered}")
+	private int feedMetaMaxBuffered;
+
+	@Value("${feed.meta.write-behind.idempotency-expiration}")
+	private long feedMetaIdempotencyExpiration;
+
+	@Value("${feed.stream.max-subscribers}")
+	private int feedStreamMaxSubscribers;
+
+	@Value("${feed.stream.buffer-size}")
+	private int feedStreamBufferSize;
+
+	@Value("${feed.stream.workers}")
+	private int feedStreamWorkers;
+
+	@Value("${feed.stream.writers}")
+	private int feedStreamWriters;
+
+	@Value("${feed.stream.timeout}")
+	private long feedStreamTimeout;
+
+	@Value("${feed.tags.trending-window}")
+	private int feedTagsTrendingWindow;
+
+	@Value("${search.fetch-size}")
+	private int searchFetchSize;
+
+	@Value("${timeline.depth}")
+	private int timelineDepth;
+
+	@Value("${timeline.active-users}")
+	private long timelineActiveUsers;
+
+	@Value("${timeline.idle-expiration}")
+	private long timelineIdleExpiration;
+
 	@Value("${h2.server.params}")
 	private String[] h2ServerParams;
 
@@ -66,10 +189,50 @@ public class ResourceProvider {
 		return jwtPrefix;
 	}
 
+	public long getJwtCacheSize() {
+		return jwtCacheSize;
+	}
+
 	public String[] getJwtExcludedUrls() {
 		return jwtExcludedUrls;
 	}
 
+	public long getPasswordTargetHashTime() {
+		return passwordTargetHashTime;
+	}
+
+	public int getPasswordMinCost() {
+		return passwordMinCost;
+	}
+
+	public int getPasswordMaxCost() {
+		return passwordMaxCost;
+	}
+
+	public int getLoginWorkers() {
+		return loginWorkers;
+	}
+
+	public int getLoginQueueCapacity() {
+		return loginQueueCapacity;
+	}
+
+	public boolean isRateLimitEnabled() {
+		return rateLimitEnabled;
+	}
+
+	public long getRateLimitClients() {
+		return rateLimitClients;
+	}
+
+	public long getRateLimitIdleExpiration() {
+		return rateLimitIdleExpiration;
+	}
+
+	public String[] getRateLimitBudgets() {
+		return rateLimitBudgets;
+	}
+
 	public String getClientUrl() {
 		return clientUrl;
 	}
@@ -90,6 +253,130 @@ public class ResourceProvider {
 		return clientResetExpiration;
 	}
 
+	public String[] getReplicaUrls() {
+		return replicaUrls;
+	}
+
+	public int getReplicaPoolSize() {
+		return replicaPoolSize;
+	}
+
+	public long getReplicaMaxLag() {
+		return replicaMaxLag;
+	}
+
+	public String getReplicaLagQuery() {
+		return replicaLagQuery;
+	}
+
+	public String[] getAdminUsernames() {
+		return adminUsernames;
+	}
+
+	public int getUserListFetchSize() {
+		return userListFetchSize;
+	}
+
+	public int getUserImportChunkSize() {
+		return userImportChunkSize;
+	}
+
+	public int getUserImportWorkers() {
+		return userImportWorkers;
+	}
+
+	public boolean isEmailOutboxEnabled() {
+		return emailOutboxEnabled;
+	}
+
+	public int getEmailOutboxBatchSize() {
+		return emailOutboxBatchSize;
+	}
+
+	public int getEmailOutboxWorkers() {
+		return emailOutboxWorkers;
+	}
+
+	public int getEmailOutboxQueueCapacity() {
+		return emailOutboxQueueCapacity;
+	}
+
+	public int getEmailOutboxMaxAttempts() {
+		return emailOutboxMaxAttempts;
+	}
+
+	public long getEmailOutboxBackoff() {
+		return emailOutboxBackoff;
+	}
+
+	public long getFeedCacheSize() {
+		return feedCacheSize;
+	}
+
+	public long getFeedCacheExpiration() {
+		return feedCacheExpiration;
+	}
+
+	public boolean isFeedMetaWriteBehind() {
+		return feedMetaWriteBehind;
+	}
+
+	public int getFeedMetaStripes() {
+		return feedMetaStripes;
+	}
+
+	public int getFeedMetaBatchSize() {
+		return feedMetaBatchSize;
+	}
+
+	public int getFeedMetaMaxBuffered() {
+		return feedMetaMaxBuffered;
+	}
+
+	public long getFeedMetaIdempotencyExpiration() {
+		return feedMetaIdempotencyExpiration;
+	}
+
+	public int getFeedStreamMaxSubscribers() {
+		return feedStreamMaxSubscribers;
+	}
+
+	public int getFeedStreamBufferSize() {
+		return feedStreamBufferSize;
+	}
+
+	public int getFeedStreamWorkers() {
+		return feedStreamWorkers;
+	}
+
+	public int getFeedStreamWriters() {
+		return feedStreamWriters;
+	}
+
+	public long getFeedStreamTimeout() {
+		return feedStreamTimeout;
+	}
+
+	public int getFeedTagsTrendingWindow() {
+		return feedTagsTrendingWindow;
+	}
+
+	public int getSearchFetchSize() {
+		return searchFetchSize;
+	}
+
+	public int getTimelineDepth() {
+		return timelineDepth;
+	}
+
+	public long getTimelineActiveUsers() {
+		return timelineActiveUsers;
+	}
+
+	public long getTimelineIdleExpiration() {
+		return timelineIdleExpiration;
+	}
+
 	public String[] getH2ServerParams() {
 		return h2ServerParams;
 	}
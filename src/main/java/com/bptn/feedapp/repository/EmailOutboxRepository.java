@@ -0,0 +1,35 @@
+package com.bptn.feedapp.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bptn.feedapp.jpa.EmailOutbox;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Integer> {
+	
+	//Oldest emails due for a (re)try, with the recipient loaded for the template
+	@EntityGraph(attributePaths = {"user", "user.profile"})
+	List<EmailOutbox> findByStatusAndNextAttemptOnLessThanEqualOrderByEmailOutboxIdAsc(String status, Timestamp now, Limit limit);
+	
+	long countByStatus(String status);
+	
+	//Moves a whole batch from one status to another in one statement, returns the number of rows claimed
+	@Transactional
+	@Modifying
+	@Query("update EmailOutbox e set e.status = :to where e.emailOutboxId in :ids and e.status = :from")
+	int updateStatus(List<Integer> ids, String from, String to);
+	
+	//Emails left in SENDING by a stopped instance go back to the queue
+	@Transactional
+	@Modifying
+	@Query("update EmailOutbox e set e.status = :to where e.status = :from")
+	int updateStatus(String from, String to);
+
+}
@@ -1,11 +1,24 @@
 package com.bptn.feedapp.repository;
 
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.bptn.feedapp.jpa.FeedMetaData;
 
 public interface FeedMetaDataRepository extends JpaRepository<FeedMetaData, Integer> {
 	
+	//Keyset queries over the comments of one feed, oldest first
+	//served by the (feedId, feedMetaDataId) index, the first page is read without a cursor
+	@EntityGraph(attributePaths = {"user", "user.profile"})
+	List<FeedMetaData> findByFeedFeedIdAndIsLikeFalseOrderByFeedMetaDataIdAsc(Integer feedId, Limit limit);
+	
+	@EntityGraph(attributePaths = {"user", "user.profile"})
+	List<FeedMetaData> findByFeedFeedIdAndIsLikeFalseAndFeedMetaDataIdGreaterThanOrderByFeedMetaDataIdAsc(Integer feedId, Integer feedMetaDataId, Limit limit);
 	
+	//served by the (feedId, likeUserId) unique key
+	boolean existsByFeedFeedIdAndLikeUserId(Integer feedId, Integer likeUserId);
 
 }
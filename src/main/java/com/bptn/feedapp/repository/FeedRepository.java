@@ -1,10 +1,17 @@
 package com.bptn.feedapp.repository;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import com.bptn.feedapp.jpa.Feed;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import com.bptn.feedapp.jpa.User;
@@ -13,11 +20,52 @@ public interface FeedRepository extends JpaRepository<Feed, Integer>, PagingAndS
 	
 	//Retrieving the feeds associated with the user
 	//result of feeds are paginated and sorted based on pageable object
+	@EntityGraph(attributePaths = {"user", "user.profile"})
 	Page<Feed> findByUser(User user, Pageable pageable);
 	
 	
 	//Retrieving the feeds not associated with the user
 	//result of feeds are paginated and sorted based on pageable object
+	@EntityGraph(attributePaths = {"user", "user.profile"})
 	Page<Feed> findByUserNot(User user, Pageable pageable);
+	
+	
+	//Keyset queries: newest feeds first, no offset and no count query
+	//the first page is read without a cursor, the next ones start below the last feedId seen
+	@EntityGraph(attributePaths = {"user", "user.profile"})
+	List<Feed> findByUserOrderByFeedIdDesc(User user, Limit limit);
+	
+	@EntityGraph(attributePaths = {"user", "user.profile"})
+	List<Feed> findByUserAndFeedIdLessThanOrderByFeedIdDesc(User user, Integer feedId, Limit limit);
+	
+	@EntityGraph(attributePaths = {"user", "user.profile"})
+	List<Feed> findByUserNotOrderByFeedIdDesc(User user, Limit limit);
+	
+	@EntityGraph(attributePaths = {"user", "user.profile"})
+	List<Feed> findByUserNotAndFeedIdLessThanOrderByFeedIdDesc(User user, Integer feedId, Limit limit);
+	
+	
+	//Newest feedIds not associated with the user, used to fill the in-memory home timeline
+	@Query("select f.feedId from Feed f where f.user <> :user order by f.feedId desc")
+	List<Integer> findFeedIdsByUserNot(User user, Limit limit);
+	
+	//Loading a home timeline page by primary key
+	@EntityGraph(attributePaths = {"user", "user.profile"})
+	List<Feed> findByFeedIdInOrderByFeedIdDesc(List<Integer> feedIds);
+	
+	
+	//Retrieving a single feed with its author in one query, the comments are paged separately
+	@EntityGraph(attributePaths = {"user", "user.profile"})
+	Optional<Feed> findWithUserByFeedId(Integer feedId);
+	
+	
+	//Counters are updated in place with a single statement, they return 0 when the feed doesn't exist
+	@Modifying
+	@Query("update Feed f set f.likeCount = f.likeCount + 1 where f.feedId = :feedId")
+	int incrementLikeCount(Integer feedId);
+	
+	@Modifying
+	@Query("update Feed f set f.commentCount = f.commentCount + 1 where f.feedId = :feedId")
+	int incrementCommentCount(Integer feedId);
 
 }
@@ -1,8 +1,16 @@
 package com.bptn.feedapp.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.bptn.feedapp.jpa.User;
 
@@ -10,5 +18,31 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 	
     Optional<User> findByUsername(String username);
     Optional<User> findByEmailId(String email);
+    
+    //Keyset pages of the user list, the profile is joined instead of loaded per user
+    @EntityGraph(attributePaths = "profile")
+    List<User> findByOrderByUserIdAsc(Limit limit);
+    
+    @EntityGraph(attributePaths = "profile")
+    List<User> findByUserIdGreaterThanOrderByUserIdAsc(Integer userId, Limit limit);
+    
+    //Read-only lookup of the caller, served from the "users" cache
+    //the returned User is shared between requests and must not be modified, use findByUsername() to update
+    //rows read from a replica may be stale and are not cached
+    @Cacheable(cacheNames = "users", key = "#p0",
+               unless = "#result == null || T(com.bptn.feedapp.config.ReplicaRoutingDataSource).isReplicaTransaction()")
+    Optional<User> findCachedByUsername(String username);
+    
+    //Replaces a password hash only while it is unchanged, a password reset in between wins
+    @Transactional
+    @Modifying
+    @CacheEvict(cacheNames = "users", key = "#p0")
+    @Query("update User u set u.password = :newPassword where u.username = :username and u.password = :oldPassword")
+    int updatePassword(String username, String oldPassword, String newPassword);
+    
+    //Every other write of a User goes through save(), so the cached copy is dropped here
+    @Override
+    @CacheEvict(cacheNames = "users", key = "#p0.username")
+    <S extends User> S save(S user);
 
 }
@@ -0,0 +1,107 @@
+package com.bptn.feedapp.security;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * BCrypt with a cost chosen at startup: a few hashes at a low cost are timed and the cost
+ * is raised until one hash takes about the target time on this hardware, never below the
+ * configured minimum. Every hash keeps its own cost, so existing hashes still match and
+ * upgradeEncoding() reports the ones made at a lower cost.
+ */
+public class CalibratedPasswordEncoder implements PasswordEncoder, MeterBinder {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private static final int PROBE_COST = 6;
+	private static final int WARMUP_RUNS = 5;
+	private static final int TIMED_RUNS = 5;
+
+	private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[abxy]?\\$(\\d\\d)\\$");
+
+	private final int cost;
+	private final double hashTime;
+
+	private final BCryptPasswordEncoder encoder;
+
+	public CalibratedPasswordEncoder(long targetHashTime, int minCost, int maxCost) {
+
+		BCryptPasswordEncoder probeEncoder = new BCryptPasswordEncoder(PROBE_COST);
+
+		/* The first runs pay for class loading and the JIT, they are not timed */
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			probeEncoder.encode("calibration");
+		}
+
+		long probe = medianHashTime(probeEncoder);
+
+		/* Each cost step doubles the hash time */
+		double steps = Math.log((double) TimeUnit.MILLISECONDS.toNanos(targetHashTime) / probe) / Math.log(2);
+
+		this.cost = (int) Math.max(minCost, Math.min(maxCost, PROBE_COST + Math.round(steps)));
+		this.encoder = new BCryptPasswordEncoder(this.cost);
+		this.hashTime = medianHashTime(this.encoder) / 1e6;
+
+		logger.info("BCrypt calibrated, cost: {}, hash time: {} ms, target: {} ms", this.cost, Math.round(this.hashTime), targetHashTime);
+	}
+
+	/* Median in ns, a GC pause or a busy core during one run does not skew it */
+	private static long medianHashTime(BCryptPasswordEncoder encoder) {
+
+		long[] times = new long[TIMED_RUNS];
+
+		for (int i = 0; i < TIMED_RUNS; i++) {
+			long start = System.nanoTime();
+			encoder.encode("calibration");
+			times[i] = System.nanoTime() - start;
+		}
+
+		Arrays.sort(times);
+
+		return times[TIMED_RUNS / 2];
+	}
+
+	public int getCost() {
+		return cost;
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return this.encoder.encode(rawPassword);
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return this.encoder.matches(rawPassword, encodedPassword);
+	}
+
+	/* True for a hash made at a lower cost only, as BCryptPasswordEncoder does */
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+
+		Matcher matcher = BCRYPT_COST.matcher(encodedPassword == null ? "" : encodedPassword);
+
+		return matcher.find() && Integer.parseInt(matcher.group(1)) < this.cost;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+
+		Gauge.builder("password.bcrypt.cost", this, CalibratedPasswordEncoder::getCost)
+				.description("BCrypt cost chosen at startup").register(registry);
+		Gauge.builder("password.bcrypt.hash.time", this, encoder -> encoder.hashTime).baseUnit("milliseconds")
+				.description("Median time of one hash at the chosen cost, measured at startup").register(registry);
+	}
+
+}
@@ -20,7 +20,7 @@ public class CustomUserDetailsService implements UserDetailsService {
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-		Optional<User> opt = this.userRepository.findByUsername(username);
+		Optional<User> opt = this.userRepository.findCachedByUsername(username);
 
 		if (opt.isEmpty()) {
 			throw new UsernameNotFoundException("Username not found: " + username);
@@ -2,7 +2,12 @@ package com.bptn.feedapp.security;
 
 import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,8 +15,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.bptn.feedapp.provider.ResourceProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtService {
@@ -21,24 +33,69 @@ public class JwtService {
 	@Autowired
 	ResourceProvider provider;
 
+	private Algorithm algorithm;
+
+	private JWTVerifier verifier;
+
+	/* Tokens that already passed verification, keyed by the token hash and dropped at their "exp" claim. */
+	private Cache<String, DecodedJWT> verifiedTokens;
+
+	@PostConstruct
+	public void init() {
+
+		/* Algorithm and JWTVerifier are immutable and thread-safe, build them once. */
+		this.algorithm = HMAC512(this.provider.getJwtSecret());
+		this.verifier = JWT.require(this.algorithm).withIssuer(this.provider.getJwtIssuer()).build();
+
+		this.verifiedTokens = Caffeine.newBuilder().maximumSize(this.provider.getJwtCacheSize())
+				.expireAfter(new Expiry<String, DecodedJWT>() {
+
+					/* A token without "exp" is never cached, it is verified on every request */
+					@Override
+					public long expireAfterCreate(String key, DecodedJWT jwt, long currentTime) {
+						return jwt.getExpiresAt() == null ? 0
+								: TimeUnit.MILLISECONDS.toNanos(Math.max(0, jwt.getExpiresAt().getTime() - System.currentTimeMillis()));
+					}
+
+					@Override
+					public long expireAfterUpdate(String key, DecodedJWT jwt, long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+
+					@Override
+					public long expireAfterRead(String key, DecodedJWT jwt, long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+				}).build();
+	}
+
+	private static String hash(String token) {
+
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+			return Base64.getEncoder().encodeToString(digest);
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
 	public String generateJwtToken(String username, long expiration) {
 
 		return JWT.create().withIssuer(this.provider.getJwtIssuer()).withAudience(this.provider.getJwtAudience())
 				.withIssuedAt(new Date()).withSubject(username)
 				.withExpiresAt(new Date(System.currentTimeMillis() + expiration))
-				.sign(HMAC512(this.provider.getJwtSecret()));
+				.sign(this.algorithm);
 	}
 
 	public DecodedJWT verifyJwtToken(String token) {
 
-		return JWT.require(HMAC512(this.provider.getJwtSecret())).withIssuer(this.provider.getJwtIssuer()).build()
-				.verify(token);
+		/* Only successfully verified tokens are cached, a failing token throws on every call. */
+		return this.verifiedTokens.get(hash(token), key -> this.verifier.verify(token));
 	}
 
 	public String getSubject(String token) {
 
-		return JWT.require(HMAC512(this.provider.getJwtSecret())).withIssuer(this.provider.getJwtIssuer()).build()
-				.verify(token).getSubject();
+		return this.verifyJwtToken(token).getSubject();
 	}
 
 }
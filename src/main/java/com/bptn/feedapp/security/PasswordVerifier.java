@@ -0,0 +1,153 @@
+package com.bptn.feedapp.security;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.exception.domain.TooManyRequestsException;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.bptn.feedapp.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Runs password checks on a pool of one thread per core with a bounded queue, so a burst of
+ * logins cannot take every request thread's CPU. When the queue is full the login is
+ * rejected right away instead of waiting behind it.
+ */
+@Service
+public class PasswordVerifier {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private static final String TOO_MANY_LOGINS = "Too many logins in progress. Please try again";
+
+	@Autowired
+	PasswordEncoder passwordEncoder;
+
+	@Autowired
+	ResourceProvider provider;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	private ThreadPoolTaskExecutor executor;
+
+	private Timer queueWaitTimer;
+	private Counter rejectedCounter;
+	private Counter rehashedCounter;
+
+	/* Checked when the user does not exist, an unknown username costs as much as a wrong password */
+	private String unknownUserHash;
+
+	@PostConstruct
+	public void init() {
+
+		int workers = this.provider.getLoginWorkers() > 0 ? this.provider.getLoginWorkers()
+				: Runtime.getRuntime().availableProcessors();
+
+		this.executor = new ThreadPoolTaskExecutor();
+		this.executor.setCorePoolSize(workers);
+		this.executor.setMaxPoolSize(workers);
+		this.executor.setQueueCapacity(this.provider.getLoginQueueCapacity());
+		this.executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+		this.executor.setThreadNamePrefix("password-");
+		this.executor.initialize();
+
+		this.queueWaitTimer = Timer.builder("login.queue.wait").description("Time a password check waits for a worker")
+				.publishPercentileHistogram().register(this.meterRegistry);
+		this.rejectedCounter = Counter.builder("login.rejected").description("Logins rejected with a full queue")
+				.register(this.meterRegistry);
+
+		this.rehashedCounter = Counter.builder("password.rehashed").description("Hashes replaced at the calibrated cost")
+				.register(this.meterRegistry);
+
+		Gauge.builder("login.queue.size", this.executor, e -> e.getThreadPoolExecutor().getQueue().size())
+				.description("Password checks waiting for a worker").register(this.meterRegistry);
+
+		this.unknownUserHash = this.passwordEncoder.encode("unknown-user");
+	}
+
+	@PreDestroy
+	public void destroy() {
+		this.executor.shutdown();
+	}
+
+	/* A null encodedPassword stands for an unknown user and never matches. */
+	public boolean matches(String rawPassword, String encodedPassword) {
+
+		long submitted = System.nanoTime();
+		Future<Boolean> result;
+
+		try {
+			result = this.executor.submit(() -> {
+
+				this.queueWaitTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+
+				boolean matches = this.passwordEncoder.matches(rawPassword, encodedPassword == null ? this.unknownUserHash : encodedPassword);
+
+				return matches && encodedPassword != null;
+			});
+
+		} catch (TaskRejectedException ex) {
+			this.rejectedCounter.increment();
+			throw new TooManyRequestsException(TOO_MANY_LOGINS);
+		}
+
+		try {
+			return result.get();
+
+		} catch (InterruptedException ex) {
+			result.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ex);
+
+		} catch (ExecutionException ex) {
+			throw new IllegalStateException(ex.getCause());
+		}
+	}
+
+	/*
+	 * After a successful login, a hash made at another cost is replaced in the background.
+	 * Skipped when the pool is busy, the next login tries again.
+	 */
+	public void upgrade(String username, String rawPassword, String encodedPassword) {
+
+		if (!this.passwordEncoder.upgradeEncoding(encodedPassword)) {
+			return;
+		}
+
+		try {
+			this.executor.execute(() -> {
+
+				int updated = this.userRepository.updatePassword(username, encodedPassword, this.passwordEncoder.encode(rawPassword));
+
+				if (updated > 0) {
+					this.rehashedCounter.increment();
+					logger.debug("Password Rehashed, username: {}", username);
+				}
+			});
+
+		} catch (TaskRejectedException ex) {
+			logger.debug("Password Rehash Skipped, username: {}", username);
+		}
+	}
+
+}
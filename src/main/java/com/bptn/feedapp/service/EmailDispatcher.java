@@ -0,0 +1,213 @@
+package com.bptn.feedapp.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.jpa.EmailOutbox;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.bptn.feedapp.repository.EmailOutboxRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+
+/* Drains the EmailOutbox table: due emails are claimed in batches and handed to a
+   bounded pool of workers, each batch is sent over a single SMTP connection. */
+@Service
+public class EmailDispatcher {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	EmailService emailService;
+
+	@Autowired
+	EmailOutboxRepository emailOutboxRepository;
+
+	@Autowired
+	JavaMailSender javaMailSender;
+
+	@Autowired
+	ResourceProvider provider;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	private ThreadPoolTaskExecutor executor;
+
+	/* Sampled on a schedule, a scrape never runs a count query */
+	private final AtomicLong pending = new AtomicLong();
+
+	private Timer sendTimer;
+	private Counter sentCounter;
+	private Counter retriedCounter;
+	private Counter failedCounter;
+
+	@PostConstruct
+	public void init() {
+
+		/* When every worker is busy and the queue is full the poller sends the batch itself,
+		   so it stops claiming emails until the workers catch up. */
+		this.executor = new ThreadPoolTaskExecutor();
+		this.executor.setCorePoolSize(this.provider.getEmailOutboxWorkers());
+		this.executor.setMaxPoolSize(this.provider.getEmailOutboxWorkers());
+		this.executor.setQueueCapacity(this.provider.getEmailOutboxQueueCapacity());
+		this.executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		this.executor.setThreadNamePrefix("email-");
+		this.executor.initialize();
+
+		Gauge.builder("email.outbox.pending", this.pending, AtomicLong::get)
+				.description("Emails waiting in the outbox").register(this.meterRegistry);
+		Gauge.builder("email.executor.queued", this.executor, e -> e.getThreadPoolExecutor().getQueue().size())
+				.description("Email batches waiting for a worker").register(this.meterRegistry);
+
+		this.sendTimer = Timer.builder("email.send").description("SMTP send time of one batch").register(this.meterRegistry);
+		this.sentCounter = this.meterRegistry.counter("email.sent");
+		this.retriedCounter = this.meterRegistry.counter("email.retried");
+		this.failedCounter = this.meterRegistry.counter("email.failed");
+
+		/* Batches claimed before the last shutdown were never confirmed */
+		if (this.provider.isEmailOutboxEnabled()) {
+			int released = this.emailOutboxRepository.updateStatus(EmailOutbox.SENDING, EmailOutbox.PENDING);
+			
+			if (released > 0) {
+				this.logger.warn("Emails Released, {}", released);
+			}
+		}
+	}
+
+	@PreDestroy
+	public void destroy() {
+		this.executor.shutdown();
+	}
+
+	@Scheduled(fixedDelayString = "${email.outbox.pending-sample-interval}")
+	public void samplePending() {
+
+		if (this.provider.isEmailOutboxEnabled()) {
+			this.pending.set(this.emailOutboxRepository.countByStatus(EmailOutbox.PENDING));
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${email.outbox.poll-interval}")
+	public void drain() {
+
+		if (!this.provider.isEmailOutboxEnabled()) {
+			return;
+		}
+
+		int batchSize = this.provider.getEmailOutboxBatchSize();
+		List<EmailOutbox> batch;
+
+		do {
+			batch = this.emailOutboxRepository.findByStatusAndNextAttemptOnLessThanEqualOrderByEmailOutboxIdAsc(
+					EmailOutbox.PENDING, Timestamp.from(Instant.now()), Limit.of(batchSize));
+
+			if (batch.isEmpty()) {
+				return;
+			}
+
+			List<Integer> ids = batch.stream().map(EmailOutbox::getEmailOutboxId).toList();
+			this.emailOutboxRepository.updateStatus(ids, EmailOutbox.PENDING, EmailOutbox.SENDING);
+
+			List<EmailOutbox> claimed = batch;
+			this.executor.execute(() -> this.send(claimed));
+
+		} while (batch.size() == batchSize);
+	}
+
+	private void send(List<EmailOutbox> batch) {
+
+		Map<MimeMessage, EmailOutbox> messages = this.emailService.createEmails(batch, (email, ex) -> {
+			this.logger.error("Error while Creating Email, " + email, ex);
+			this.retry(email, ex);
+		});
+
+		if (!messages.isEmpty()) {
+			
+			Map<Object, Exception> failed = Map.of();
+
+			try {
+				this.sendTimer.record(() -> this.javaMailSender.send(messages.keySet().toArray(MimeMessage[]::new)));
+			} catch (MailSendException ex) {
+				failed = ex.getFailedMessages();
+
+				/* Connection or authentication failure, nothing was sent */
+				if (failed.isEmpty()) {
+					this.logger.error("Error while Sending Emails, " + messages.size(), ex);
+					messages.values().forEach(email -> this.retry(email, ex));
+					messages.clear();
+				}
+			} catch (MailException ex) {
+				this.logger.error("Error while Sending Emails, " + messages.size(), ex);
+				messages.values().forEach(email -> this.retry(email, ex));
+				messages.clear();
+			}
+
+			for (Map.Entry<MimeMessage, EmailOutbox> entry : messages.entrySet()) {
+
+				Exception ex = failed.get(entry.getKey());
+
+				if (ex == null) {
+					this.sent(entry.getValue());
+				} else {
+					this.retry(entry.getValue(), ex);
+				}
+			}
+		}
+
+		this.emailOutboxRepository.saveAll(batch);
+	}
+
+	private void sent(EmailOutbox email) {
+
+		email.setStatus(EmailOutbox.SENT);
+		email.setAttempts(email.getAttempts() + 1);
+		email.setSentOn(Timestamp.from(Instant.now()));
+		email.setLastError(null);
+
+		this.sentCounter.increment();
+
+		this.logger.debug("Email Sent, {} ", email);
+	}
+
+	/* Exponential backoff: backoff, 2 * backoff, 4 * backoff... until max-attempts */
+	private void retry(EmailOutbox email, Exception ex) {
+
+		int attempts = email.getAttempts() + 1;
+		String error = String.valueOf(ex.getMessage());
+
+		email.setAttempts(attempts);
+		email.setLastError(error.substring(0, Math.min(255, error.length())));
+
+		if (attempts >= this.provider.getEmailOutboxMaxAttempts()) {
+			email.setStatus(EmailOutbox.FAILED);
+			this.failedCounter.increment();
+		} else {
+			long delay = this.provider.getEmailOutboxBackoff() << (attempts - 1);
+			email.setStatus(EmailOutbox.PENDING);
+			email.setNextAttemptOn(Timestamp.from(Instant.now().plusMillis(delay)));
+			this.retriedCounter.increment();
+		}
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.bptn.feedapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import com.bptn.feedapp.domain.EmailTemplate;
+import com.bptn.feedapp.domain.EmailTemplate.Slot;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.provider.ResourceProvider;
+
+/* Renders the email HTML templates, compiled once per template into an EmailTemplate. */
+@Service
+public class EmailRenderer {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	TemplateEngine templateEngine;
+
+	@Autowired
+	ResourceProvider provider;
+
+	/* Empty when the template can't be compiled, it is then processed by Thymeleaf */
+	private final Map<String, Optional<EmailTemplate>> templates = new ConcurrentHashMap<>();
+
+	private Context createContext(String clientParam, User user, String token) {
+
+		/* Collect Data for the Email HTML generation */
+		Context context = new Context();
+		context.setVariable("user", user);
+		context.setVariable("client", this.provider.getClientUrl());
+		context.setVariable("param", clientParam);
+		context.setVariable("token", token);
+
+		return context;
+	}
+
+	private static User createUser(String firstName, String lastName, String username) {
+
+		User user = new User();
+
+		user.setFirstName(firstName);
+		user.setLastName(lastName);
+		user.setUsername(username);
+
+		return user;
+	}
+
+	private Optional<EmailTemplate> compile(String templateName, String clientParam) {
+
+		User markers = createUser(Slot.FIRST_NAME.marker(), Slot.LAST_NAME.marker(), Slot.USERNAME.marker());
+
+		EmailTemplate template = EmailTemplate.compile(this.templateEngine.process(templateName,
+				this.createContext(clientParam, markers, Slot.TOKEN.marker())));
+
+		/* Templates using the values for more than th:text (conditions, formatting...) can't be split */
+		User sample = createUser("<Zoë & \"Jo\">", "O'Neil", "jo.o'neil");
+		String token = "header.payload.signature";
+
+		String expected = this.templateEngine.process(templateName, this.createContext(clientParam, sample, token));
+
+		if (!expected.equals(template.render(sample.getFirstName(), sample.getLastName(), sample.getUsername(), token))) {
+			this.logger.warn("Email Template not Compiled, {}", templateName);
+			return Optional.empty();
+		}
+
+		this.logger.debug("Email Template Compiled, {}", templateName);
+
+		return Optional.of(template);
+	}
+
+	/* Renders one email per user, tokens are matched to users by position */
+	public List<String> render(String templateName, String clientParam, List<User> users, List<String> tokens) {
+
+		Optional<EmailTemplate> template = this.templates.computeIfAbsent(templateName + '|' + clientParam,
+				k -> this.compile(templateName, clientParam));
+
+		List<String> emails = new ArrayList<>(users.size());
+
+		for (int i = 0; i < users.size(); i++) {
+
+			User user = users.get(i);
+			String token = tokens.get(i);
+
+			emails.add(template.isPresent()
+					? template.get().render(user.getFirstName(), user.getLastName(), user.getUsername(), token)
+					: this.templateEngine.process(templateName, this.createContext(clientParam, user, token)));
+		}
+
+		return emails;
+	}
+
+	public String render(String templateName, String clientParam, User user, String token) {
+		return this.render(templateName, clientParam, List.of(user), List.of(token)).get(0);
+	}
+
+}
@@ -1,23 +1,32 @@
 package com.bptn.feedapp.service;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
+import com.bptn.feedapp.jpa.EmailOutbox;
 import com.bptn.feedapp.jpa.User;
 import com.bptn.feedapp.provider.ResourceProvider;
+import com.bptn.feedapp.repository.EmailOutboxRepository;
 import com.bptn.feedapp.security.JwtService;
 
+import io.micrometer.observation.annotation.Observed;
 import jakarta.mail.internet.MimeMessage;
 
 @Service
+@Observed(name = "email.service")
 public class EmailService {
 
 	final Logger logger = LoggerFactory.getLogger(this.getClass());
@@ -32,57 +41,94 @@ public class EmailService {
 	ResourceProvider provider;
 
 	@Autowired
-	TemplateEngine templateEngine;
+	EmailRenderer emailRenderer;
 
 	@Autowired
 	JavaMailSender javaMailSender;
 
-	private void sendEmail(User user, String clientParam, String templateName, String emailSubject, long expiration) {
+	@Autowired
+	EmailOutboxRepository emailOutboxRepository;
+
+	private MimeMessage createEmail(User user, String emailSubject, String html) throws Exception {
+
+		MimeMessage mimeMessage = this.javaMailSender.createMimeMessage();
+		MimeMessageHelper helper = new MimeMessageHelper(mimeMessage);
+
+		/* Set Email Information */
+		helper.setFrom(this.emailFrom, "FeedApp - Obsidi Academy");
+		helper.setSubject(emailSubject);
+		helper.setText(html, true);
+		helper.setTo(user.getEmailId());
+
+		return mimeMessage;
+	}
+	
+	/* Builds the messages of a batch of outbox rows, each email type is rendered in one call.
+	   Tokens are issued when the emails are actually sent. */
+	public Map<MimeMessage, EmailOutbox> createEmails(List<EmailOutbox> emails, BiConsumer<EmailOutbox, Exception> onError) {
 
-		try {
+		Map<MimeMessage, EmailOutbox> messages = new LinkedHashMap<>();
 
-			/* Collect Data for the Email HTML generation */
-			Context context = new Context();
-			context.setVariable("user", user);
-			context.setVariable("client", this.provider.getClientUrl());
-			context.setVariable("param", clientParam);
-			context.setVariable("token", this.jwtService.generateJwtToken(user.getUsername(), expiration));
+		emails.stream().collect(Collectors.groupingBy(EmailOutbox::getEmailType)).forEach((emailType, group) -> {
 
-			/* Process Email HTML Template */
-			String process = this.templateEngine.process(templateName, context);
+			boolean reset = EmailOutbox.RESET.equals(emailType);
 
-			MimeMessage mimeMessage = this.javaMailSender.createMimeMessage();
-			MimeMessageHelper helper = new MimeMessageHelper(mimeMessage);
+			String clientParam = reset ? this.provider.getClientResetParam() : this.provider.getClientVerifyParam();
+			long expiration = reset ? this.provider.getClientResetExpiration() : this.provider.getClientVerifyExpiration();
+
+			List<User> users = group.stream().map(EmailOutbox::getUser).toList();
+			List<String> html;
+
+			try {
+				List<String> tokens = users.stream().map(u -> this.jwtService.generateJwtToken(u.getUsername(), expiration)).toList();
+				html = this.emailRenderer.render(reset ? "reset_password" : "verify_email", clientParam, users, tokens);
+			} catch (Exception ex) {
+				group.forEach(email -> onError.accept(email, ex));
+				return;
+			}
+
+			for (int i = 0; i < group.size(); i++) {
+
+				User user = users.get(i);
+				String emailSubject = reset ? "Reset your password"
+						: String.format("Welcome %s %s", user.getFirstName(), user.getLastName());
+
+				try {
+					messages.put(this.createEmail(user, emailSubject, html.get(i)), group.get(i));
+				} catch (Exception ex) {
+					onError.accept(group.get(i), ex);
+				}
+			}
+		});
+
+		return messages;
+	}
 
-			/* Set Email Information */
-			helper.setFrom(this.emailFrom, "FeedApp - Obsidi Academy");
-			helper.setSubject(emailSubject);
-			helper.setText(process, true);
-			helper.setTo(user.getEmailId());
+	/* Emails are stored in the outbox and sent in batches by the EmailDispatcher */
+	private void queueEmail(User user, String emailType) {
 
-			/* Send Email */
-			this.javaMailSender.send(mimeMessage);
+		EmailOutbox email = new EmailOutbox();
 
-			this.logger.debug("Email Sent, {} ", user.getEmailId());
+		email.setUser(user);
+		email.setEmailType(emailType);
+		email.setStatus(EmailOutbox.PENDING);
+		email.setAttempts(0);
+		email.setCreatedOn(Timestamp.from(Instant.now()));
+		email.setNextAttemptOn(email.getCreatedOn());
 
-		} catch (Exception ex) {
+		this.emailOutboxRepository.save(email);
 
-			this.logger.error("Error while Sending Email, Username: " + user.getUsername(), ex);
-		}
+		this.logger.debug("Email Queued, {} ", email);
 	}
 	
-	@Async
 	public void sendVerificationEmail(User user) {
 			
-		this.sendEmail(user, this.provider.getClientVerifyParam(),"verify_email", 
-		String.format("Welcome %s %s",user.getFirstName(),user.getLastName()), 
-					      this.provider.getClientVerifyExpiration());
+		this.queueEmail(user, EmailOutbox.VERIFY);
 	}	
 	
-	@Async
 	public void sendResetPasswordEmail(User user) {
 			
-		this.sendEmail(user, this.provider.getClientResetParam(), "reset_password", "Reset your password", this.provider.getClientResetExpiration());
+		this.queueEmail(user, EmailOutbox.RESET);
 	}	
 
 }
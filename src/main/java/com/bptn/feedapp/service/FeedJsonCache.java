@@ -0,0 +1,155 @@
+package com.bptn.feedapp.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.bptn.feedapp.domain.CachedJson;
+import com.bptn.feedapp.exception.domain.FeedNotFoundException;
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.jpa.FeedMetaData;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.bptn.feedapp.repository.FeedRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/*
+ * The serialized JSON of single feeds. Every load gets a new version from a counter seeded
+ * with the start time, so an ETag is never handed out twice, not even across restarts.
+ * Writes to a feed evict it and the next read loads a new version. A load runs on the
+ * reading thread outside of any cache lock: a placeholder future is put first, concurrent
+ * readers of the feed wait on it, and an eviction during the load removes it so the old
+ * copy is never cached.
+ */
+@Service
+public class FeedJsonCache {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	FeedRepository feedRepository;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	ResourceProvider provider;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	private final AtomicLong version = new AtomicLong(System.currentTimeMillis() * 1000);
+
+	private AsyncCache<Integer, CachedJson> feeds;
+
+	@PostConstruct
+	public void init() {
+
+		this.feeds = Caffeine.newBuilder().maximumSize(this.provider.getFeedCacheSize())
+				.expireAfterWrite(this.provider.getFeedCacheExpiration(), TimeUnit.MILLISECONDS).recordStats().buildAsync();
+
+		CaffeineCacheMetrics.monitor(this.meterRegistry, this.feeds.synchronous(), "feeds");
+	}
+
+	public CachedJson get(int feedId) {
+
+		/* Records the hit or miss */
+		CompletableFuture<CachedJson> cached = this.feeds.getIfPresent(feedId);
+
+		if (cached == null) {
+
+			CompletableFuture<CachedJson> loading = new CompletableFuture<>();
+			cached = this.feeds.asMap().putIfAbsent(feedId, loading);
+
+			if (cached == null) {
+				try {
+					loading.complete(this.load(feedId));
+				} catch (RuntimeException ex) {
+					this.feeds.asMap().remove(feedId, loading);
+					loading.completeExceptionally(ex);
+					throw ex;
+				}
+
+				return loading.join();
+			}
+		}
+
+		try {
+			return cached.join();
+		} catch (CompletionException ex) {
+			throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+		}
+	}
+
+	/*
+	 * Loaded outside of a service transaction, the repository call then runs on the primary
+	 * and a lagging replica cannot put an old copy under a new version.
+	 */
+	private CachedJson load(int feedId) {
+
+		logger.debug("Loading Feed JSON, feedId: {}", feedId);
+
+		return new CachedJson(String.format("\"%d-%d\"", feedId, this.version.incrementAndGet()), this.serialize(this.find(feedId)));
+	}
+
+	/* A copy with the buffered likes and comments added to the counters, it is neither cached nor versioned. */
+	public CachedJson render(int feedId, List<FeedMetaData> pending) {
+
+		Feed feed = this.find(feedId);
+
+		int likes = (int) pending.stream().filter(FeedMetaData::getIsLike).count();
+
+		feed.setLikeCount(feed.getLikeCount() + likes);
+		feed.setCommentCount(feed.getCommentCount() + pending.size() - likes);
+
+		return new CachedJson(null, this.serialize(feed));
+	}
+
+	private Feed find(int feedId) {
+
+		return this.feedRepository.findWithUserByFeedId(feedId)
+				.orElseThrow(() -> new FeedNotFoundException(String.format("Feed doesn't exist, %d", feedId)));
+	}
+
+	private byte[] serialize(Feed feed) {
+
+		try {
+			return this.objectMapper.writeValueAsBytes(feed);
+		} catch (JsonProcessingException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/* Inside a transaction the feed is evicted once the change is committed. */
+	public void evict(int feedId) {
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					FeedJsonCache.this.feeds.synchronous().invalidate(feedId);
+				}
+			});
+
+		} else {
+			this.feeds.synchronous().invalidate(feedId);
+		}
+	}
+
+}
@@ -0,0 +1,362 @@
+package com.bptn.feedapp.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.exception.domain.TooManyRequestsException;
+import com.bptn.feedapp.jdbc.FeedMetaDataDao;
+import com.bptn.feedapp.jpa.FeedMetaData;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Write-behind buffer for likes and comments. Events are striped by feedId and written in
+ * batches every flush-interval, or as soon as a stripe holds batch-size events. A flush
+ * swaps the stripe's events for a new list and writes them with the stripe unlocked, adds
+ * never wait on the database. A reader of a feed with events in flight waits for that flush,
+ * so it either sees an event in the buffer or in the database, never in both or in neither.
+ * Buffered events are lost if the process dies. When a batch fails the events are written
+ * one by one and those the database rejects are dropped, a stripe is capped at max-buffered
+ * events while the database cannot be reached.
+ */
+@Service
+public class FeedMetaBuffer {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	FeedMetaDataDao feedMetaDataDao;
+
+	@Autowired
+	FeedJsonCache feedJsonCache;
+
+	@Autowired
+	ResourceProvider provider;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	/* The events of the feeds hashed to one stripe, those being written and the likes among both. */
+	private static class Stripe {
+
+		final ReentrantLock lock = new ReentrantLock();
+		final AtomicBoolean flushQueued = new AtomicBoolean();
+
+		/* Held for a whole flush, one flush of the stripe at a time */
+		final ReentrantLock flushLock = new ReentrantLock();
+
+		List<FeedMetaData> events = new ArrayList<>();
+		List<FeedMetaData> inFlight = List.of();
+		final Set<Long> likes = new HashSet<>();
+	}
+
+	private Stripe[] stripes;
+
+	private final AtomicInteger buffered = new AtomicInteger();
+
+	private ThreadPoolTaskExecutor executor;
+
+	private AsyncCache<String, FeedMetaData> accepted;
+
+	private Timer flushTimer;
+
+	private Counter droppedCounter;
+
+	@PostConstruct
+	public void init() {
+
+		this.stripes = new Stripe[this.provider.getFeedMetaStripes()];
+
+		for (int i = 0; i < this.stripes.length; i++) {
+			this.stripes[i] = new Stripe();
+		}
+
+		/* A stripe is queued at most once, so the queue never holds more than one task per stripe */
+		this.executor = new ThreadPoolTaskExecutor();
+		this.executor.setCorePoolSize(1);
+		this.executor.setMaxPoolSize(1);
+		this.executor.setQueueCapacity(this.stripes.length);
+		this.executor.setThreadNamePrefix("feedmeta-");
+		this.executor.initialize();
+
+		this.accepted = Caffeine.newBuilder()
+				.expireAfterWrite(this.provider.getFeedMetaIdempotencyExpiration(), TimeUnit.MILLISECONDS).buildAsync();
+
+		Gauge.builder("feed.meta.buffered", this.buffered, AtomicInteger::get)
+				.description("Likes and comments waiting to be written").register(this.meterRegistry);
+
+		this.flushTimer = Timer.builder("feed.meta.flush").description("Write time of one stripe").register(this.meterRegistry);
+
+		this.droppedCounter = Counter.builder("feed.meta.dropped").description("Likes and comments rejected by the database")
+				.register(this.meterRegistry);
+	}
+
+	@PreDestroy
+	public void destroy() {
+
+		this.executor.shutdown();
+
+		/* Written synchronously, buffered events would be lost otherwise */
+		this.flush();
+	}
+
+	private Stripe stripe(int feedId) {
+		return this.stripes[Math.floorMod(feedId, this.stripes.length)];
+	}
+
+	private static long likeKey(int feedId, int userId) {
+		return (long) feedId << 32 | (userId & 0xFFFFFFFFL);
+	}
+
+	/*
+	 * Runs the action once per idempotency key, a retried request gets the event accepted the
+	 * first time. Requests without a key always run the action. The action queries the
+	 * database, it runs on the caller's thread after a placeholder was put for the key and
+	 * never inside a cache compute. A failed action removes it, the retry runs it again.
+	 */
+	public FeedMetaData accept(String idempotencyKey, Supplier<FeedMetaData> action) {
+
+		if (idempotencyKey == null) {
+			return action.get();
+		}
+
+		CompletableFuture<FeedMetaData> running = new CompletableFuture<>();
+		CompletableFuture<FeedMetaData> first = this.accepted.asMap().putIfAbsent(idempotencyKey, running);
+
+		if (first != null) {
+			try {
+				return first.join();
+			} catch (CompletionException ex) {
+				throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+			}
+		}
+
+		try {
+			running.complete(action.get());
+		} catch (RuntimeException ex) {
+			this.accepted.asMap().remove(idempotencyKey, running);
+			running.completeExceptionally(ex);
+			throw ex;
+		}
+
+		return running.join();
+	}
+
+	/*
+	 * Buffers a like or a comment. A like is refused when the same user's like is already
+	 * buffered or when liked, checked under the stripe lock, reports it in the database. A
+	 * full stripe is refused with TooManyRequestsException until it is written.
+	 */
+	public boolean add(FeedMetaData meta, BooleanSupplier liked) {
+
+		int feedId = meta.getFeed().getFeedId();
+		Stripe stripe = this.stripe(feedId);
+		int size;
+
+		stripe.lock.lock();
+
+		try {
+			if (stripe.events.size() + stripe.inFlight.size() >= this.provider.getFeedMetaMaxBuffered()) {
+				throw new TooManyRequestsException("Too many likes and comments waiting to be written, please try again later");
+			}
+
+			if (meta.getIsLike()) {
+
+				long key = likeKey(feedId, meta.getLikeUserId());
+
+				if (stripe.likes.contains(key) || liked.getAsBoolean()) {
+					return false;
+				}
+
+				stripe.likes.add(key);
+			}
+
+			stripe.events.add(meta);
+			size = stripe.events.size();
+
+		} finally {
+			stripe.lock.unlock();
+		}
+
+		this.buffered.incrementAndGet();
+
+		if (size >= this.provider.getFeedMetaBatchSize() && stripe.flushQueued.compareAndSet(false, true)) {
+
+			this.executor.execute(() -> {
+				stripe.flushQueued.set(false);
+				this.flush(stripe);
+			});
+		}
+
+		return true;
+	}
+
+	/*
+	 * While the feed has buffered events the reader gets them and runs under the stripe lock,
+	 * so they cannot be moved in flight between its database read and the merge. While the
+	 * feed has events in flight the reader waits for the flush and finds them in the database.
+	 */
+	public <T> T read(int feedId, Function<List<FeedMetaData>, T> withPending, Supplier<T> withoutPending) {
+
+		Stripe stripe = this.stripe(feedId);
+		boolean flushing;
+
+		stripe.lock.lock();
+
+		try {
+			flushing = stripe.inFlight.stream().anyMatch(meta -> meta.getFeed().getFeedId() == feedId);
+
+			if (!flushing) {
+
+				List<FeedMetaData> pending = stripe.events.stream().filter(meta -> meta.getFeed().getFeedId() == feedId).toList();
+
+				if (!pending.isEmpty()) {
+					return withPending.apply(pending);
+				}
+			}
+
+		} finally {
+			stripe.lock.unlock();
+		}
+
+		if (flushing) {
+
+			/* Nothing is in flight while the flush lock is held */
+			stripe.flushLock.lock();
+
+			try {
+				return this.read(feedId, withPending, withoutPending);
+			} finally {
+				stripe.flushLock.unlock();
+			}
+		}
+
+		return withoutPending.get();
+	}
+
+	@Scheduled(fixedDelayString = "${feed.meta.write-behind.flush-interval}")
+	public void flush() {
+
+		if (!this.provider.isFeedMetaWriteBehind()) {
+			return;
+		}
+
+		for (Stripe stripe : this.stripes) {
+			this.flush(stripe);
+		}
+	}
+
+	private void flush(Stripe stripe) {
+
+		stripe.flushLock.lock();
+
+		try {
+			List<FeedMetaData> batch;
+
+			stripe.lock.lock();
+
+			try {
+				if (stripe.events.isEmpty()) {
+					return;
+				}
+
+				/* The likes in flight keep their keys, a duplicate is refused until they are in the database */
+				batch = stripe.events;
+				stripe.events = new ArrayList<>();
+				stripe.inFlight = batch;
+
+			} finally {
+				stripe.lock.unlock();
+			}
+
+			/* The cached copies are dropped before the events leave the flight */
+			int done = this.flushTimer.record(() -> this.write(batch));
+
+			stripe.lock.lock();
+
+			try {
+				/* The events not written go back ahead of those added during the write */
+				List<FeedMetaData> events = new ArrayList<>(batch.subList(done, batch.size()));
+				events.addAll(stripe.events);
+
+				stripe.events = events;
+				stripe.inFlight = List.of();
+
+				/* A like still buffered keeps its key, the rest are in the database or dropped */
+				stripe.likes.clear();
+				stripe.events.stream().filter(FeedMetaData::getIsLike)
+						.forEach(meta -> stripe.likes.add(likeKey(meta.getFeed().getFeedId(), meta.getLikeUserId())));
+
+				this.buffered.addAndGet(-done);
+
+			} finally {
+				stripe.lock.unlock();
+			}
+
+		} finally {
+			stripe.flushLock.unlock();
+		}
+	}
+
+	/* The number of events written or dropped from the start of the batch */
+	private int write(List<FeedMetaData> batch) {
+
+		try {
+			this.feedMetaDataDao.createFeedMetaData(batch).forEach(this.feedJsonCache::evict);
+			return batch.size();
+
+		} catch (DataAccessException ex) {
+			this.logger.warn("Batch Write Failed, writing one by one: {}", ex.getMessage());
+		}
+
+		for (int i = 0; i < batch.size(); i++) {
+
+			FeedMetaData meta = batch.get(i);
+
+			try {
+				this.feedMetaDataDao.createFeedMetaData(List.of(meta)).forEach(this.feedJsonCache::evict);
+
+			} catch (DataIntegrityViolationException ex) {
+				/* Would fail on every flush */
+				this.logger.error("FeedMetaData Dropped, feedId: {}", meta.getFeed().getFeedId(), ex);
+				this.droppedCounter.increment();
+
+			} catch (DataAccessException ex) {
+				/* Kept in the buffer and retried on the next flush */
+				this.logger.error("Error while Writing FeedMetaData, remaining: {}", batch.size() - i, ex);
+				return i;
+			}
+		}
+
+		return batch.size();
+	}
+
+}
@@ -2,34 +2,61 @@ package com.bptn.feedapp.service;
 
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.bptn.feedapp.domain.CachedJson;
+import com.bptn.feedapp.domain.CursorResponse;
 import com.bptn.feedapp.domain.PageResponse;
+import com.bptn.feedapp.domain.SearchIndex.Hit;
+import com.bptn.feedapp.domain.TrendingTag;
 import com.bptn.feedapp.exception.domain.FeedNotFoundException;
 import com.bptn.feedapp.exception.domain.FeedNotUserException;
+import com.bptn.feedapp.exception.domain.InvalidFeedMetaDataException;
 import com.bptn.feedapp.exception.domain.LikeExistException;
 import com.bptn.feedapp.exception.domain.UserNotFoundException;
 import com.bptn.feedapp.jpa.Feed;
 import com.bptn.feedapp.jpa.FeedMetaData;
 import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.provider.ResourceProvider;
 import com.bptn.feedapp.repository.FeedMetaDataRepository;
 import com.bptn.feedapp.repository.FeedRepository;
 import com.bptn.feedapp.repository.UserRepository;
 
+import io.micrometer.observation.annotation.Observed;
+
 @Service
+@Observed(name = "feed.service")
 public class FeedService {
 
 	final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+	static final int MAX_COMMENT_LENGTH = 255;
+
+	/* The unique key that only a second like from the same user violates */
+	static final String LIKE_KEY = "FeedMetaData_feedId_likeUserId_key";
+
 	@Autowired
 	UserRepository userRepository;
 
@@ -38,31 +65,80 @@ public class FeedService {
 	
 	@Autowired
 	FeedMetaDataRepository  feedMetaDataRepository;
+	
+	@Autowired
+	TimelineService timelineService;
+
+	@Autowired
+	FeedJsonCache feedJsonCache;
+
+	@Autowired
+	FeedMetaBuffer feedMetaBuffer;
+
+	@Autowired
+	SearchService searchService;
+
+	@Autowired
+	TagService tagService;
+
+	@Autowired
+	FeedStreamHub feedStreamHub;
+
+	@Autowired
+	ResourceProvider provider;
 
 	public Feed createFeed(Feed feed) {
 
 		String username = SecurityContextHolder.getContext().getAuthentication().getName();
 
-		User user = this.userRepository.findByUsername(username)
+		User user = this.userRepository.findCachedByUsername(username)
 				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
 
 		feed.setUser(user);
 		feed.setCreatedOn(Timestamp.from(Instant.now()));
+		feed.setLikeCount(0);
+		feed.setCommentCount(0);
+
+		Feed saved = this.feedRepository.save(feed);
 
-		return this.feedRepository.save(feed);
+		/* Fan-out-on-write into the home timelines of the active users. */
+		this.timelineService.publish(saved);
+		this.searchService.add(saved);
+		this.tagService.index(saved);
+		this.feedStreamHub.publish(saved);
+
+		return saved;
 	}
 
-	public Feed getFeedById(int feedId) {
+	/* New feeds of the other users are pushed to the stream as they are created. */
+	public SseEmitter streamFeeds() {
+
+		String username = SecurityContextHolder.getContext().getAuthentication().getName();
+
+		User user = this.userRepository.findCachedByUsername(username)
+				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
 
-		return this.feedRepository.findById(feedId)
-				.orElseThrow(() -> new FeedNotFoundException(String.format("Feed doesn't exist, %d", feedId)));
+		return this.feedStreamHub.subscribe(user);
 	}
 
+	/* Served from memory, only a feed missing from the cache is read from the database. */
+	public CachedJson getFeedJson(int feedId) {
+
+		if (!this.isWriteBehind()) {
+			return this.feedJsonCache.get(feedId);
+		}
+
+		/* The caller sees its buffered likes and comments in the counters before they are written */
+		return this.feedMetaBuffer.read(feedId, pending -> this.feedJsonCache.render(feedId, pending),
+				() -> this.feedJsonCache.get(feedId));
+	}
+
+	@Transactional(readOnly = true)
 	public PageResponse<Feed> getUserFeeds(int pageNum, int pageSize) {
 
 		String username = SecurityContextHolder.getContext().getAuthentication().getName();
 
-		User user = this.userRepository.findByUsername(username)
+		User user = this.userRepository.findCachedByUsername(username)
 				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
 
 		Page<Feed> paged = this.feedRepository.findByUser(user,
@@ -71,11 +147,12 @@ public class FeedService {
 		return new PageResponse<Feed>(paged);
 	}
 
+	@Transactional(readOnly = true)
 	public PageResponse<Feed> getOtherUsersFeeds(int pageNum, int pageSize) {
 
 		String username = SecurityContextHolder.getContext().getAuthentication().getName();
 		
-		User user = this.userRepository.findByUsername(username)
+		User user = this.userRepository.findCachedByUsername(username)
 				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
 
 		Page<Feed> paged = this.feedRepository.findByUserNot(user,
@@ -83,46 +160,264 @@ public class FeedService {
 
 		return new PageResponse<Feed>(paged);
 	}
+
+	@Transactional(readOnly = true)
+	public CursorResponse<Feed> getUserFeeds(String after, int limit) {
+
+		String username = SecurityContextHolder.getContext().getAuthentication().getName();
+
+		User user = this.userRepository.findCachedByUsername(username)
+				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
+
+		int pageSize = CursorResponse.pageSize(limit);
+
+		/* One extra row tells us if there is a next page without running a count query. */
+		List<Feed> slice = CursorResponse.decode(after)
+				.map(feedId -> this.feedRepository.findByUserAndFeedIdLessThanOrderByFeedIdDesc(user, feedId, Limit.of(pageSize + 1)))
+				.orElseGet(() -> this.feedRepository.findByUserOrderByFeedIdDesc(user, Limit.of(pageSize + 1)));
+
+		return new CursorResponse<Feed>(slice, pageSize, Feed::getFeedId);
+	}
+
+	@Transactional(readOnly = true)
+	public CursorResponse<Feed> getOtherUsersFeeds(String after, int limit) {
+
+		String username = SecurityContextHolder.getContext().getAuthentication().getName();
+
+		User user = this.userRepository.findCachedByUsername(username)
+				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
+
+		int pageSize = CursorResponse.pageSize(limit);
+		Optional<Integer> before = CursorResponse.decode(after);
+
+		/* Served from the home timeline by primary key, pages past its depth fall back to the sorted query. */
+		List<Feed> slice = this.timelineService.getFeedIds(user, before.orElse(null), pageSize + 1)
+				.map(ids -> this.feedRepository.findByFeedIdInOrderByFeedIdDesc(Arrays.stream(ids).boxed().toList()))
+				.orElseGet(() -> before
+						.map(feedId -> this.feedRepository.findByUserNotAndFeedIdLessThanOrderByFeedIdDesc(user, feedId, Limit.of(pageSize + 1)))
+						.orElseGet(() -> this.feedRepository.findByUserNotOrderByFeedIdDesc(user, Limit.of(pageSize + 1))));
+
+		return new CursorResponse<Feed>(slice, pageSize, Feed::getFeedId);
+	}
 	
+	/* Newest first, the feedIds come from the (tag, feedId) index and the feeds by primary key. */
+	@Transactional(readOnly = true)
+	public CursorResponse<Feed> getTagFeeds(String tag, String after, int limit) {
+
+		int pageSize = CursorResponse.pageSize(limit);
+
+		List<Integer> ids = this.tagService.getFeedIdsByTag(tag, CursorResponse.decode(after).orElse(null), pageSize + 1);
+
+		return new CursorResponse<Feed>(this.findFeeds(ids), pageSize, Feed::getFeedId);
+	}
+
+	@Transactional(readOnly = true)
+	public CursorResponse<Feed> getMentionFeeds(String after, int limit) {
+
+		String username = SecurityContextHolder.getContext().getAuthentication().getName();
+
+		User user = this.userRepository.findCachedByUsername(username)
+				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
+
+		int pageSize = CursorResponse.pageSize(limit);
+
+		List<Integer> ids = this.tagService.getFeedIdsByMention(user, CursorResponse.decode(after).orElse(null), pageSize + 1);
+
+		return new CursorResponse<Feed>(this.findFeeds(ids), pageSize, Feed::getFeedId);
+	}
+
+	public List<TrendingTag> getTrendingTags(int limit) {
+		return this.tagService.getTrendingTags(CursorResponse.pageSize(limit));
+	}
+
+	private List<Feed> findFeeds(List<Integer> ids) {
+		return ids.isEmpty() ? List.of() : this.feedRepository.findByFeedIdInOrderByFeedIdDesc(ids);
+	}
+
+	/*
+	 * Ranked by the index, the feeds of a page are then read by primary key. The cursor holds
+	 * the score and feedId of the last hit, one extra hit tells if there is a next page.
+	 */
+	@Transactional(readOnly = true)
+	public CursorResponse<Feed> searchFeeds(String query, String after, int limit) {
+
+		int pageSize = CursorResponse.pageSize(limit);
+
+		/* The cursor keeps the scores of the first page, feeds added or deleted since do not shift the later pages */
+		List<Hit> hits = this.searchService.search(query, Hit.fromCursor(after).orElse(null), pageSize + 1);
+		List<Hit> page = hits.subList(0, Math.min(pageSize, hits.size()));
+
+		/* A feed deleted since the hit was found is left out. */
+		Map<Integer, Feed> feeds = this.findFeeds(page.stream().map(Hit::feedId).toList())
+				.stream().collect(Collectors.toMap(Feed::getFeedId, Function.identity()));
+
+		CursorResponse<Feed> response = new CursorResponse<Feed>(page.stream().map(hit -> feeds.get(hit.feedId()))
+				.filter(Objects::nonNull).toList(), pageSize, Feed::getFeedId);
+
+		if (hits.size() > pageSize) {
+			response.setNextCursor(page.get(pageSize - 1).toCursor());
+		}
+
+		return response;
+	}
+	
+	@Transactional(readOnly = true)
+	public CursorResponse<FeedMetaData> getFeedComments(int feedId, String after, int limit) {
+
+		if (!this.isWriteBehind()) {
+			return this.findFeedComments(feedId, after, limit);
+		}
+
+		/* Buffered comments follow the last page, they have no feedMetaDataId yet */
+		return this.feedMetaBuffer.read(feedId, pending -> {
+
+			CursorResponse<FeedMetaData> page = this.findFeedComments(feedId, after, limit);
+
+			if (page.getNextCursor() == null) {
+				List<FeedMetaData> content = new ArrayList<>(page.getContent());
+				pending.stream().filter(meta -> !meta.getIsLike()).forEach(content::add);
+				page.setContent(content);
+			}
+
+			return page;
+
+		}, () -> this.findFeedComments(feedId, after, limit));
+	}
+
+	private CursorResponse<FeedMetaData> findFeedComments(int feedId, String after, int limit) {
+
+		int pageSize = CursorResponse.pageSize(limit);
+
+		List<FeedMetaData> slice = CursorResponse.decode(after)
+				.map(metaId -> this.feedMetaDataRepository.findByFeedFeedIdAndIsLikeFalseAndFeedMetaDataIdGreaterThanOrderByFeedMetaDataIdAsc(feedId, metaId, Limit.of(pageSize + 1)))
+				.orElseGet(() -> this.feedMetaDataRepository.findByFeedFeedIdAndIsLikeFalseOrderByFeedMetaDataIdAsc(feedId, Limit.of(pageSize + 1)));
+
+		/* Only an empty page needs to tell a missing feed apart from a feed without comments. */
+		if (slice.isEmpty() && !this.feedRepository.existsById(feedId)) {
+			throw new FeedNotFoundException(String.format("Feed doesn't exist, %d", feedId));
+		}
+
+		return new CursorResponse<FeedMetaData>(slice, pageSize, FeedMetaData::getFeedMetaDataId);
+	}
+	
+	@Transactional
 	public FeedMetaData createFeedMetaData(int feedId, FeedMetaData meta) {
 		
+		this.validateComment(meta);
+		
 		String username = SecurityContextHolder.getContext().getAuthentication().getName();
 			
-		User user = this.userRepository.findByUsername(username)
+		User user = this.userRepository.findCachedByUsername(username)
 					             .orElseThrow(()-> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
-			
-		Feed feed = this.feedRepository.findById(feedId)
-					             .orElseThrow(()-> new FeedNotFoundException(String.format("Feed doesn't exist, %d", feedId)));
 
 		FeedMetaData newMeta = new FeedMetaData();
 			
-		newMeta.setIsLike(false);
+		newMeta.setIsLike(Optional.ofNullable(meta.getIsLike()).orElse(false));
+		newMeta.setComment(newMeta.getIsLike() ? "" : meta.getComment());
 		newMeta.setUser(user);
-		newMeta.setFeed(feed);
 		newMeta.setCreatedOn(Timestamp.from(Instant.now()));
+		
+		/* Bump the counter first, the update doubles as the existence check of the feed. */
+		int updated = newMeta.getIsLike() ? this.feedRepository.incrementLikeCount(feedId)
+				                          : this.feedRepository.incrementCommentCount(feedId);
+		
+		if (updated == 0) {
+			throw new FeedNotFoundException(String.format("Feed doesn't exist, %d", feedId));
+		}
+		
+		newMeta.setFeed(this.feedRepository.getReferenceById(feedId));
+
+		/* The counters changed, the cached copy is dropped on commit. */
+		this.feedJsonCache.evict(feedId);
+		
+		if (newMeta.getIsLike()) {
+			newMeta.setLikeUserId(user.getUserId());
+		}
+		
+		try {
+			/* A duplicate like violates the (feedId, likeUserId) unique key and rolls back the counter. */
+			return this.feedMetaDataRepository.saveAndFlush(newMeta);
+		} 
+		catch (DataIntegrityViolationException ex) {
+			
+			if (this.isLikeKeyViolation(ex)) {
+				throw new LikeExistException(String.format("Feed already liked, feedId: %d, username: %s", feedId, username));
+			}
+			
+			logger.debug("FeedMetaData Rejected, feedId: {}, Reason: {}", feedId, ex.getMostSpecificCause().getMessage());
 			
-	    if (Optional.ofNullable(meta.getIsLike()).isPresent()) {
-	        	
-	        newMeta.setIsLike( meta.getIsLike() );
-	            
-	        if (meta.getIsLike()) {
-	        		
-	            feed.getFeedMetaData().stream()
-	                      .filter(m -> m.getUser().getUsername().equals(username))
-	      	              .filter(m -> m.getIsLike().equals(true)).findAny()
-	      	              .ifPresent(m -> {throw new LikeExistException(String.format("Feed already liked, feedId: %d, username: %s", feedId, username));});
-	            	
-	            newMeta.setComment("");
-	        }
-	    } 
-	        
-	    if (!newMeta.getIsLike()) {
-	        newMeta.setComment(meta.getComment());
-	    }
-	        
-		return this.feedMetaDataRepository.save(newMeta);
+			throw new InvalidFeedMetaDataException(String.format("Like or comment could not be saved, feedId: %d", feedId));
+		}
+	}
+	
+	/* The constraint name as reported by Hibernate, or else the database message naming it */
+	private boolean isLikeKeyViolation(DataIntegrityViolationException ex) {
+		
+		String violated = ex.getCause() instanceof ConstraintViolationException cve && cve.getConstraintName() != null
+				? cve.getConstraintName()
+				: ex.getMostSpecificCause().getMessage();
+		
+		return violated != null && violated.toLowerCase(Locale.ROOT).contains(LIKE_KEY.toLowerCase(Locale.ROOT));
 	}
 	
+	/* Checked before anything is written, "FeedMetaData".comment is a varchar(255) */
+	private void validateComment(FeedMetaData meta) {
+		
+		if (!Boolean.TRUE.equals(meta.getIsLike()) && meta.getComment() != null && meta.getComment().length() > MAX_COMMENT_LENGTH) {
+			throw new InvalidFeedMetaDataException(String.format("Comment is longer than %d characters", MAX_COMMENT_LENGTH));
+		}
+	}
+	
+	public boolean isWriteBehind() {
+		return this.provider.isFeedMetaWriteBehind();
+	}
+
+	/*
+	 * Write-behind variant of createFeedMetaData: the like or comment is buffered and written
+	 * later in a batch. Only the feed and, for a like, an earlier like are checked here.
+	 */
+	public FeedMetaData queueFeedMetaData(int feedId, FeedMetaData meta, String idempotencyKey) {
+
+		/* Checked before the 202, a buffered comment the database rejects would be lost */
+		this.validateComment(meta);
+
+		String username = SecurityContextHolder.getContext().getAuthentication().getName();
+
+		User user = this.userRepository.findCachedByUsername(username)
+				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
+
+		/* Keys are scoped to the user, two users may send the same key */
+		String key = idempotencyKey == null ? null : user.getUserId() + ":" + idempotencyKey;
+
+		return this.feedMetaBuffer.accept(key, () -> {
+
+			if (!this.feedRepository.existsById(feedId)) {
+				throw new FeedNotFoundException(String.format("Feed doesn't exist, %d", feedId));
+			}
+
+			Feed feed = new Feed();
+			feed.setFeedId(feedId);
+
+			FeedMetaData newMeta = new FeedMetaData();
+
+			newMeta.setIsLike(Optional.ofNullable(meta.getIsLike()).orElse(false));
+			newMeta.setComment(newMeta.getIsLike() ? "" : meta.getComment());
+			newMeta.setUser(user);
+			newMeta.setFeed(feed);
+			newMeta.setCreatedOn(Timestamp.from(Instant.now()));
+
+			if (newMeta.getIsLike()) {
+				newMeta.setLikeUserId(user.getUserId());
+			}
+
+			if (!this.feedMetaBuffer.add(newMeta, () -> this.feedMetaDataRepository.existsByFeedFeedIdAndLikeUserId(feedId, user.getUserId()))) {
+				throw new LikeExistException(String.format("Feed already liked, feedId: %d, username: %s", feedId, username));
+			}
+
+			return newMeta;
+		});
+	}
+
 	public void deleteFeed(int feedId) {
 		
 		String username = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -134,6 +429,11 @@ public class FeedService {
 			         .orElseThrow(()-> new FeedNotUserException(String.format("Feed doesn't belong to current User, feedId: %d, username: %s", feedId, username)));
 			
 		this.feedRepository.delete(feed);
+		
+		this.timelineService.remove(feedId);
+		this.feedJsonCache.evict(feedId);
+		this.searchService.remove(feed);
+		this.tagService.remove(feed);
 	}
 
 }
@@ -0,0 +1,264 @@
+package com.bptn.feedapp.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.bptn.feedapp.exception.domain.TooManyRequestsException;
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Pushes new feeds to the open GET /feeds/stream connections. A connection is an async
+ * request, it holds no thread while idle. Every connection has a small buffer that drops
+ * its oldest event when the client falls behind, and is written by at most one writer
+ * thread at a time. The writers are platform threads: the emitter writes while holding its
+ * monitor, a virtual thread blocked there would pin its carrier. Only the writer of a
+ * connection touches its emitter, so the workers fanning out and the heartbeat never wait
+ * on a client. A client that stops reading until a whole buffer was dropped is marked
+ * closed, its writer completes it once the blocked write returns or times out, and it
+ * reconnects and catches up from the timeline.
+ */
+@Service
+public class FeedStreamHub {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private static final String TOO_MANY_STREAMS = "Too many open streams. Please try again";
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	ResourceProvider provider;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	final class Subscriber {
+
+		final int userId;
+		final SseEmitter emitter;
+
+		final ArrayDeque<Set<DataWithMediaType>> buffer = new ArrayDeque<>();
+		final AtomicBoolean queued = new AtomicBoolean();
+
+		/* Events dropped since the client last took one, guarded by the buffer */
+		int dropped;
+
+		/* Stalled, the writer completes the emitter, guarded by the buffer */
+		boolean closed;
+
+		Subscriber(int userId, SseEmitter emitter) {
+			this.userId = userId;
+			this.emitter = emitter;
+		}
+	}
+
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	private ThreadPoolTaskExecutor executor;
+
+	private ThreadPoolTaskExecutor writer;
+
+	/* Built once, it is the same for every connection */
+	private final Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("").build();
+
+	private Counter droppedCounter;
+	private Counter closedCounter;
+
+	@PostConstruct
+	public void init() {
+
+		/* Only fans out to the buffers, the workers never wait on a client */
+		this.executor = new ThreadPoolTaskExecutor();
+		this.executor.setCorePoolSize(this.provider.getFeedStreamWorkers());
+		this.executor.setMaxPoolSize(this.provider.getFeedStreamWorkers());
+		this.executor.setThreadNamePrefix("feedstream-");
+		this.executor.initialize();
+
+		/* A connection is queued at most once, the queue is bounded by the connections */
+		this.writer = new ThreadPoolTaskExecutor();
+		this.writer.setCorePoolSize(this.provider.getFeedStreamWriters());
+		this.writer.setMaxPoolSize(this.provider.getFeedStreamWriters());
+		this.writer.setThreadNamePrefix("feedstream-writer-");
+		this.writer.initialize();
+
+		Gauge.builder("feed.stream.subscribers", this.subscribers, Set::size)
+				.description("Open feed streams").register(this.meterRegistry);
+
+		this.droppedCounter = Counter.builder("feed.stream.dropped").description("Events dropped for clients falling behind")
+				.register(this.meterRegistry);
+
+		this.closedCounter = Counter.builder("feed.stream.closed").description("Streams closed for clients that stopped reading")
+				.register(this.meterRegistry);
+	}
+
+	@PreDestroy
+	public void destroy() {
+
+		this.executor.shutdown();
+		this.writer.shutdown();
+		this.subscribers.forEach(subscriber -> subscriber.emitter.complete());
+	}
+
+	public SseEmitter subscribe(User user) {
+
+		if (this.subscribers.size() >= this.provider.getFeedStreamMaxSubscribers()) {
+			throw new TooManyRequestsException(TOO_MANY_STREAMS);
+		}
+
+		return this.subscribe(user, new SseEmitter(this.provider.getFeedStreamTimeout()));
+	}
+
+	SseEmitter subscribe(User user, SseEmitter emitter) {
+
+		Subscriber subscriber = new Subscriber(user.getUserId(), emitter);
+
+		/* The client reconnects after a timeout, completing here keeps it out of the error handling */
+		emitter.onTimeout(emitter::complete);
+		emitter.onCompletion(() -> this.subscribers.remove(subscriber));
+		emitter.onError(ex -> this.subscribers.remove(subscriber));
+
+		this.subscribers.add(subscriber);
+
+		/* Sends the response headers right away */
+		this.offer(subscriber, this.heartbeat);
+
+		logger.debug("Feed Stream opened, userId: {}, streams: {}", user.getUserId(), this.subscribers.size());
+
+		return emitter;
+	}
+
+	/* The fan-out runs on the workers, createFeed() only serializes the feed once. */
+	public void publish(Feed feed) {
+
+		Set<DataWithMediaType> event;
+
+		try {
+			event = SseEmitter.event().id(String.valueOf(feed.getFeedId())).name("feed")
+					.data(this.objectMapper.writeValueAsString(feed), MediaType.APPLICATION_JSON).build();
+		} catch (JsonProcessingException ex) {
+			throw new IllegalStateException(ex);
+		}
+
+		int authorId = feed.getUser().getUserId();
+
+		this.executor.execute(() -> this.subscribers.stream().filter(subscriber -> subscriber.userId != authorId)
+				.forEach(subscriber -> this.offer(subscriber, event)));
+	}
+
+	/* Keeps idle connections open through proxies and finds the clients that went away. */
+	@Scheduled(fixedDelayString = "${feed.stream.heartbeat-interval}")
+	public void heartbeat() {
+		this.subscribers.forEach(subscriber -> this.offer(subscriber, this.heartbeat));
+	}
+
+	private void offer(Subscriber subscriber, Set<DataWithMediaType> event) {
+
+		int bufferSize = this.provider.getFeedStreamBufferSize();
+		boolean stalled;
+
+		synchronized (subscriber.buffer) {
+
+			if (subscriber.buffer.size() == bufferSize) {
+				subscriber.buffer.pollFirst();
+				subscriber.dropped++;
+				this.droppedCounter.increment();
+			}
+
+			if (subscriber.closed) {
+				return;
+			}
+
+			/* Still stuck in a write after a whole buffer went by */
+			stalled = subscriber.dropped >= bufferSize;
+
+			if (stalled) {
+				subscriber.closed = true;
+				subscriber.buffer.clear();
+			} else {
+				subscriber.buffer.addLast(event);
+			}
+		}
+
+		if (stalled) {
+			this.subscribers.remove(subscriber);
+			this.closedCounter.increment();
+
+			logger.debug("Feed Stream closed, userId: {} stopped reading", subscriber.userId);
+		}
+
+		/* A stalled connection is queued too, in case its writer already returned */
+		if (subscriber.queued.compareAndSet(false, true)) {
+			this.writer.execute(() -> this.drain(subscriber));
+		}
+	}
+
+	private void drain(Subscriber subscriber) {
+
+		while (true) {
+
+			Set<DataWithMediaType> event = null;
+			boolean closed;
+
+			synchronized (subscriber.buffer) {
+
+				closed = subscriber.closed;
+
+				if (!closed) {
+					event = subscriber.buffer.pollFirst();
+
+					/* Cleared under the lock, an event offered after this queues the connection again */
+					if (event == null) {
+						subscriber.queued.set(false);
+						return;
+					}
+
+					subscriber.dropped = 0;
+				}
+			}
+
+			/* Only the writer completes a stalled connection, it is the one thread that may wait on the emitter */
+			if (closed) {
+				subscriber.emitter.complete();
+				return;
+			}
+
+			try {
+				subscriber.emitter.send(event);
+			} catch (IOException | IllegalStateException ex) {
+				/* The client went away or the stream timed out, the container completes the request */
+				this.subscribers.remove(subscriber);
+
+				synchronized (subscriber.buffer) {
+					subscriber.buffer.clear();
+				}
+
+				return;
+			}
+		}
+	}
+
+}
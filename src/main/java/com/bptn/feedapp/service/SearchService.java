@@ -0,0 +1,78 @@
+package com.bptn.feedapp.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.domain.SearchIndex;
+import com.bptn.feedapp.domain.SearchIndex.Hit;
+import com.bptn.feedapp.jdbc.FeedDao;
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.provider.ResourceProvider;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/*
+ * Full-text search over the feed content. The index lives in memory, it is read from the
+ * Feed table once the application is up and then kept current by createFeed() and
+ * deleteFeed(). Searches running while it loads only see the feeds loaded so far.
+ */
+@Service
+public class SearchService {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	FeedDao feedDao;
+
+	@Autowired
+	ResourceProvider provider;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	private final SearchIndex index = new SearchIndex();
+
+	@PostConstruct
+	public void init() {
+
+		Gauge.builder("search.index.documents", this.index, SearchIndex::getDocuments)
+				.description("Feeds in the search index").register(this.meterRegistry);
+
+		Gauge.builder("search.index.terms", this.index, SearchIndex::getTerms)
+				.description("Distinct terms in the search index").register(this.meterRegistry);
+	}
+
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+
+		long start = System.currentTimeMillis();
+
+		this.feedDao.streamContent(this.provider.getSearchFetchSize(), (content, feedId) -> this.index.add(feedId, content));
+
+		logger.info("Search index loaded, feeds: {}, terms: {}, time: {} ms", this.index.getDocuments(),
+				this.index.getTerms(), System.currentTimeMillis() - start);
+	}
+
+	public void add(Feed feed) {
+		this.index.add(feed.getFeedId(), feed.getContent());
+	}
+
+	public void remove(Feed feed) {
+		this.index.remove(feed.getFeedId(), feed.getContent());
+	}
+
+	public List<Hit> search(String query, Hit after, int limit) {
+		return this.index.search(query, after, limit);
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.bptn.feedapp.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.bptn.feedapp.domain.ContentTags;
+import com.bptn.feedapp.domain.TrendingTag;
+import com.bptn.feedapp.jdbc.FeedTagDao;
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.bptn.feedapp.repository.UserRepository;
+
+/*
+ * The #hashtags and @mentions of the feeds, extracted once when a feed is created into the
+ * FeedTag and FeedMention tables. Tag use is counted per hour in TagCount, trending tags
+ * only add up the hours of the window.
+ */
+@Service
+public class TagService {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	FeedTagDao feedTagDao;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	ResourceProvider provider;
+
+	public void index(Feed feed) {
+
+		ContentTags parsed = ContentTags.parse(feed.getContent());
+
+		if (parsed.tags().isEmpty() && parsed.mentions().isEmpty()) {
+			return;
+		}
+
+		List<Integer> userIds = this.userIds(parsed);
+		int hour = hour(feed.getCreatedOn().getTime());
+
+		try {
+			this.feedTagDao.index(feed.getFeedId(), hour, parsed.tags(), userIds);
+		} catch (DuplicateKeyException ex) {
+			/* Another feed inserted the count row of a new tag first, it is bumped on the second try */
+			this.feedTagDao.index(feed.getFeedId(), hour, parsed.tags(), userIds);
+		}
+	}
+
+	/* The content is parsed again, it still holds the tags the feed was indexed under. */
+	public void remove(Feed feed) {
+
+		ContentTags parsed = ContentTags.parse(feed.getContent());
+
+		if (!parsed.tags().isEmpty() || !parsed.mentions().isEmpty()) {
+			this.feedTagDao.remove(feed.getFeedId(), hour(feed.getCreatedOn().getTime()), parsed.tags(), this.userIds(parsed));
+		}
+	}
+
+	public List<Integer> getFeedIdsByTag(String tag, Integer before, int limit) {
+		return this.feedTagDao.findFeedIdsByTag(ContentTags.normalize(tag), before, limit);
+	}
+
+	public List<Integer> getFeedIdsByMention(User user, Integer before, int limit) {
+		return this.feedTagDao.findFeedIdsByMention(user.getUserId(), before, limit);
+	}
+
+	public List<TrendingTag> getTrendingTags(int limit) {
+
+		int window = this.provider.getFeedTagsTrendingWindow();
+
+		return this.feedTagDao.findTrending(hour(System.currentTimeMillis()) - window + 1, limit);
+	}
+
+	@Scheduled(fixedDelayString = "${feed.tags.purge-interval}")
+	public void purge() {
+
+		int deleted = this.feedTagDao.deleteCountsBefore(hour(System.currentTimeMillis()) - this.provider.getFeedTagsTrendingWindow() + 1);
+
+		logger.debug("Tag Counts purged: {}", deleted);
+	}
+
+	/* Mentions of usernames that don't exist are not indexed. */
+	private List<Integer> userIds(ContentTags parsed) {
+
+		return parsed.mentions().stream().map(this.userRepository::findCachedByUsername).flatMap(Optional::stream)
+				.map(User::getUserId).toList();
+	}
+
+	static int hour(long millis) {
+		return (int) TimeUnit.MILLISECONDS.toHours(millis);
+	}
+
+}
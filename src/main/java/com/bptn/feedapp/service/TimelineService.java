@@ -0,0 +1,101 @@
+package com.bptn.feedapp.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bptn.feedapp.domain.HomeTimeline;
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.bptn.feedapp.repository.FeedRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/*
+ * Fan-out-on-write home timelines ("feeds of the other users") for the active users.
+ * A user becomes active on the first timeline read and is dropped after being idle,
+ * createFeed() then pushes the new feedId into the timeline of every active user.
+ * A cold timeline is loaded in a transaction of its own on the primary: a lagging replica
+ * would miss the newest feeds, and the fan-out never adds feeds created before the load.
+ */
+@Service
+public class TimelineService {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	FeedRepository feedRepository;
+
+	@Autowired
+	ResourceProvider provider;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	private Cache<Integer, HomeTimeline> timelines;
+
+	private TransactionTemplate primaryTransaction;
+
+	@PostConstruct
+	public void init() {
+
+		this.timelines = Caffeine.newBuilder().maximumSize(this.provider.getTimelineActiveUsers())
+				.expireAfterAccess(this.provider.getTimelineIdleExpiration(), TimeUnit.MILLISECONDS).build();
+
+		/* Suspends the caller's read-only transaction, a read-write one is routed to the primary */
+		this.primaryTransaction = new TransactionTemplate(this.transactionManager);
+		this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.primaryTransaction.setReadOnly(false);
+	}
+
+	public void publish(Feed feed) {
+
+		int authorId = feed.getUser().getUserId();
+
+		this.timelines.asMap().forEach((userId, timeline) -> {
+			if (userId != authorId) {
+				timeline.add(feed.getFeedId());
+			}
+		});
+	}
+
+	public void remove(int feedId) {
+
+		this.timelines.asMap().values().forEach(timeline -> timeline.remove(feedId));
+	}
+
+	/*
+	 * The feedIds of a home timeline page, empty when the page lies past the depth kept in
+	 * memory. A cold timeline is registered before it is read from the database, so feeds
+	 * created while it loads are pushed into it as well.
+	 */
+	public Optional<int[]> getFeedIds(User user, Integer before, int limit) {
+
+		HomeTimeline timeline = this.timelines.get(user.getUserId(), userId -> new HomeTimeline(this.provider.getTimelineDepth()));
+
+		if (!timeline.isLoaded()) {
+
+			int depth = this.provider.getTimelineDepth();
+			List<Integer> ids = this.primaryTransaction.execute(status -> this.feedRepository.findFeedIdsByUserNot(user, Limit.of(depth)));
+
+			timeline.load(ids, ids.size() < depth);
+
+			logger.debug("Home Timeline loaded, userId: {}, feeds: {}", user.getUserId(), ids.size());
+		}
+
+		return timeline.page(before, limit);
+	}
+
+}
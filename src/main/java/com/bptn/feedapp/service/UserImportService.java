@@ -0,0 +1,326 @@
+package com.bptn.feedapp.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.bptn.feedapp.domain.ImportError;
+import com.bptn.feedapp.domain.ImportProgress;
+import com.bptn.feedapp.jdbc.UserBean;
+import com.bptn.feedapp.jdbc.UserDao;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Bulk user import from NDJSON (one user per line) or CSV (header line with the UserBean
+ * property names). Rows are read and imported in chunks: uniqueness is checked with one
+ * query per chunk, passwords are hashed on a small pool of this service and the rows are
+ * inserted as one JDBC batch with their verification emails. Rejected rows and the progress
+ * after every chunk are written to the output as NDJSON.
+ */
+@Service
+public class UserImportService {
+
+	final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	UserDao userDao;
+
+	@Autowired
+	PasswordEncoder passwordEncoder;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	ResourceProvider provider;
+
+	private ThreadPoolTaskExecutor executor;
+
+	private record ImportRow(int line, UserBean user) {
+	}
+
+	@PostConstruct
+	public void init() {
+
+		/* Not the common pool, a large import would take it from every parallel stream */
+		this.executor = new ThreadPoolTaskExecutor();
+		this.executor.setCorePoolSize(this.provider.getUserImportWorkers());
+		this.executor.setMaxPoolSize(this.provider.getUserImportWorkers());
+		this.executor.setThreadNamePrefix("userimport-");
+		this.executor.initialize();
+	}
+
+	@PreDestroy
+	public void destroy() {
+		this.executor.shutdown();
+	}
+
+	public ImportProgress importUsers(BufferedReader reader, boolean csv, PrintWriter output) throws IOException {
+
+		ImportProgress progress = new ImportProgress();
+		List<ImportRow> chunk = new ArrayList<>();
+
+		int chunkSize = this.provider.getUserImportChunkSize();
+		int lineNumber = 0;
+		int failed = 0;
+
+		String[] header = null;
+		String line;
+
+		while ((line = reader.readLine()) != null) {
+
+			lineNumber++;
+
+			if (!StringUtils.hasText(line)) {
+				continue;
+			}
+
+			if (csv && header == null) {
+				header = parseCsvLine(line).toArray(String[]::new);
+				continue;
+			}
+
+			try {
+				UserBean user = csv ? this.parseCsvUser(header, line) : this.objectMapper.readValue(line, UserBean.class);
+				chunk.add(new ImportRow(lineNumber, user));
+			} catch (Exception ex) {
+				this.write(output, new ImportError(lineNumber, null, String.format("Invalid row, %s", ex.getMessage())));
+				failed++;
+			}
+
+			if (chunk.size() == chunkSize) {
+				this.importChunk(chunk, failed, progress, output);
+				chunk.clear();
+				failed = 0;
+			}
+		}
+
+		if (!chunk.isEmpty() || failed > 0) {
+			this.importChunk(chunk, failed, progress, output);
+		}
+
+		progress.setDone(true);
+		this.write(output, progress);
+
+		this.logger.debug("Users Imported, {}", progress);
+
+		return progress;
+	}
+
+	private void importChunk(List<ImportRow> chunk, int failed, ImportProgress progress, PrintWriter output) throws IOException {
+
+		List<ImportRow> rows = new ArrayList<>(chunk.size());
+		Set<String> usernames = new HashSet<>();
+		Set<String> emailIds = new HashSet<>();
+
+		/* Required fields and duplicates inside the chunk */
+		for (ImportRow row : chunk) {
+
+			UserBean user = row.user();
+			String error = null;
+
+			if (!StringUtils.hasText(user.getUsername())) {
+				error = "Missing field, username";
+			} else if (!StringUtils.hasText(user.getEmailId())) {
+				error = "Missing field, emailId";
+			} else if (!StringUtils.hasText(user.getPassword())) {
+				error = "Missing field, password";
+			} else {
+				user.setUsername(user.getUsername().toLowerCase());
+				user.setEmailId(user.getEmailId().toLowerCase());
+
+				if (!usernames.add(user.getUsername())) {
+					error = String.format("Username already exists, %s", user.getUsername());
+				} else if (!emailIds.add(user.getEmailId())) {
+					error = String.format("Email already exists, %s", user.getEmailId());
+				}
+			}
+
+			if (error == null) {
+				rows.add(row);
+			} else {
+				this.write(output, new ImportError(row.line(), user.getUsername(), error));
+				failed++;
+			}
+		}
+
+		/* Duplicates of existing users, earlier chunks are already in the table */
+		if (!rows.isEmpty()) {
+
+			Set<String> existingUsernames = this.userDao.findExistingUsernames(usernames);
+			Set<String> existingEmailIds = this.userDao.findExistingEmailIds(emailIds);
+
+			List<ImportRow> valid = new ArrayList<>(rows.size());
+
+			for (ImportRow row : rows) {
+
+				UserBean user = row.user();
+
+				if (existingUsernames.contains(user.getUsername())) {
+					this.write(output, new ImportError(row.line(), user.getUsername(), String.format("Username already exists, %s", user.getUsername())));
+					failed++;
+				} else if (existingEmailIds.contains(user.getEmailId())) {
+					this.write(output, new ImportError(row.line(), user.getUsername(), String.format("Email already exists, %s", user.getEmailId())));
+					failed++;
+				} else {
+					valid.add(row);
+				}
+			}
+
+			rows = valid;
+		}
+
+		/* BCrypt dominates the import, hash on the workers */
+		Timestamp createdOn = Timestamp.from(Instant.now());
+
+		List<Future<?>> hashed = new ArrayList<>(rows.size());
+
+		for (ImportRow row : rows) {
+
+			UserBean user = row.user();
+
+			/* Like signup, the address is verified by its owner and never by the importer */
+			user.setEmailVerified(false);
+			user.setCreatedOn(createdOn);
+
+			hashed.add(this.executor.submit(() -> user.setPassword(this.passwordEncoder.encode(user.getPassword()))));
+		}
+
+		await(hashed);
+
+		int imported = this.insert(rows, output);
+
+		progress.add(imported, failed + rows.size() - imported);
+		this.write(output, progress);
+	}
+
+	private int insert(List<ImportRow> rows, PrintWriter output) throws IOException {
+
+		if (rows.isEmpty()) {
+			return 0;
+		}
+
+		try {
+			this.userDao.createUsers(rows.stream().map(ImportRow::user).toList());
+			return rows.size();
+		} catch (DataIntegrityViolationException ex) {
+			this.logger.debug("Batch Insert Failed, inserting one by one: {}", ex.getMessage());
+		}
+
+		/* A user created since the uniqueness check, find out which row it was */
+		int imported = 0;
+
+		for (ImportRow row : rows) {
+			try {
+				this.userDao.createUsers(List.of(row.user()));
+				imported++;
+			} catch (DataIntegrityViolationException ex) {
+				this.write(output, new ImportError(row.line(), row.user().getUsername(), String.format("User already exists, %s", row.user().getUsername())));
+			}
+		}
+
+		return imported;
+	}
+
+	private static void await(List<Future<?>> futures) {
+
+		try {
+			for (Future<?> future : futures) {
+				future.get();
+			}
+
+		} catch (InterruptedException ex) {
+			futures.forEach(future -> future.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ex);
+
+		} catch (ExecutionException ex) {
+			throw new IllegalStateException(ex.getCause());
+		}
+	}
+
+	private void write(PrintWriter output, Object line) throws IOException {
+
+		output.println(this.objectMapper.writeValueAsString(line));
+
+		if (line instanceof ImportProgress) {
+			output.flush();
+		}
+	}
+
+	private UserBean parseCsvUser(String[] header, String line) {
+
+		List<String> fields = parseCsvLine(line);
+
+		if (fields.size() != header.length) {
+			throw new IllegalArgumentException(String.format("expected %d fields, found %d", header.length, fields.size()));
+		}
+
+		Map<String, String> values = new HashMap<>();
+
+		for (int i = 0; i < header.length; i++) {
+			values.put(header[i].trim(), fields.get(i));
+		}
+
+		return this.objectMapper.convertValue(values, UserBean.class);
+	}
+
+	/* RFC 4180 fields on a single line: "quoted, with ""escaped"" quotes" */
+	static List<String> parseCsvLine(String line) {
+
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++) {
+
+			char c = line.charAt(i);
+
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+
+		fields.add(field.toString());
+
+		return fields;
+	}
+
+}
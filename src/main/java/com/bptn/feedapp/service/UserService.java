@@ -2,6 +2,9 @@ package com.bptn.feedapp.service;
 
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.List;
@@ -12,26 +15,38 @@ import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpHeaders;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import com.bptn.feedapp.domain.CursorResponse;
 import com.bptn.feedapp.exception.domain.EmailExistException;
 import com.bptn.feedapp.exception.domain.EmailNotVerifiedException;
 import com.bptn.feedapp.exception.domain.UserNotFoundException;
 import com.bptn.feedapp.exception.domain.UsernameExistException;
+import com.bptn.feedapp.jdbc.UserDao;
 import com.bptn.feedapp.jpa.Profile;
 import com.bptn.feedapp.jpa.User;
 import com.bptn.feedapp.provider.ResourceProvider;
 import com.bptn.feedapp.repository.UserRepository;
 import com.bptn.feedapp.security.JwtService;
+import com.bptn.feedapp.security.PasswordVerifier;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.annotation.Observed;
 
 @Service
+@Observed(name = "user.service")
 public class UserService {
 
 	final Logger logger = LoggerFactory.getLogger(this.getClass());
@@ -46,7 +61,10 @@ public class UserService {
 	PasswordEncoder passwordEncoder;
 
 	@Autowired
-	AuthenticationManager authenticationManager;
+	PasswordVerifier passwordVerifier;
+
+	@Autowired
+	MeterRegistry meterRegistry;
 
 	@Autowired
 	JwtService jwtService;
@@ -54,19 +72,61 @@ public class UserService {
 	@Autowired
 	ResourceProvider provider;
 
-	public List<User> listUsers() {
+	@Autowired
+	UserDao userDao;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	public void streamUsers(OutputStream output) throws IOException {
 
-		// this calls findAll() method from CrudRepository(superInterface for
-		// JpaRepository)
-		// this is internally firing "Select * from "\"User\"";
-		return this.userRepository.findAll();
+		// writes the JSON array one user at a time while the rows are read from a JDBC cursor
+		// this is internally firing "Select ... from "\"User\"" left join "\"Profile\"" order by "userId";
+		// the generator buffers the users and is flushed once per fetch, not after every row
+		int fetchSize = this.provider.getUserListFetchSize();
+		ObjectWriter writer = this.objectMapper.writerFor(User.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+		try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(output)) {
+
+			generator.writeStartArray();
+
+			int[] rows = { 0 };
+
+			this.userDao.streamUsers(fetchSize, user -> {
+				try {
+					writer.writeValue(generator, user);
+
+					if (++rows[0] % fetchSize == 0) {
+						generator.flush();
+					}
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+
+			generator.writeEndArray();
+		}
 	}
 
+	@Transactional(readOnly = true)
+	public CursorResponse<User> listUsers(String after, int limit) {
+
+		int pageSize = CursorResponse.pageSize(limit);
+
+		/* One extra row tells us if there is a next page without running a count query. */
+		List<User> slice = CursorResponse.decode(after)
+				.map(userId -> this.userRepository.findByUserIdGreaterThanOrderByUserIdAsc(userId, Limit.of(pageSize + 1)))
+				.orElseGet(() -> this.userRepository.findByOrderByUserIdAsc(Limit.of(pageSize + 1)));
+
+		return new CursorResponse<>(slice, pageSize, User::getUserId);
+	}
+
+	@Transactional(readOnly = true)
 	public Optional<User> findByUsername(String username) {
 
-		// this calls findByUsername() method from UserRepository interface
-		// this is internally firing "Select * from "\"User\"" where "username"=?;
-		return this.userRepository.findByUsername(username);
+		// this calls findCachedByUsername() method from UserRepository interface
+		// on a cache miss this is internally firing "Select * from "\"User\"" where "username"=?; on a replica
+		return this.userRepository.findCachedByUsername(username);
 
 	}
 
@@ -133,17 +193,34 @@ public class UserService {
 		return user;
 	}
 
-	private Authentication authenticate(String username, String password) {
-		return this.authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
-	}
-
+	/*
+	 * The user is read once, from the users cache, and the password is checked on the
+	 * PasswordVerifier pool. Unknown users and wrong passwords fail the same way.
+	 */
 	public User authenticate(User user) {
 
-		/* Spring Security Authentication. */
-		this.authenticate(user.getUsername(), user.getPassword());
+		Timer.Sample sample = Timer.start(this.meterRegistry);
+		String outcome = "failure";
 
-		/* Get User from the DB. */
-		return this.userRepository.findByUsername(user.getUsername()).map(UserService::isEmailVerified).get();
+		try {
+			Optional<User> opt = Optional.ofNullable(user.getUsername()).flatMap(this.userRepository::findCachedByUsername);
+
+			if (user.getPassword() == null || !this.passwordVerifier.matches(user.getPassword(), opt.map(User::getPassword).orElse(null))) {
+				throw new BadCredentialsException("Bad credentials");
+			}
+
+			User authenticated = isEmailVerified(opt.get());
+			outcome = "success";
+
+			/* Hashes made at another BCrypt cost are replaced in the background */
+			this.passwordVerifier.upgrade(authenticated.getUsername(), user.getPassword(), authenticated.getPassword());
+
+			return authenticated;
+
+		} finally {
+			sample.stop(Timer.builder("login.latency").description("Login time, password check included")
+					.tag("outcome", outcome).publishPercentileHistogram().register(this.meterRegistry));
+		}
 	}
 
 	public HttpHeaders generateJwtHeader(String username) {
@@ -182,8 +259,8 @@ public class UserService {
 
 		String username = SecurityContextHolder.getContext().getAuthentication().getName();
 
-		/* Get User from the DB. */
-		return this.userRepository.findByUsername(username)
+		/* Get User from the cache or the DB. */
+		return this.userRepository.findCachedByUsername(username)
 				.orElseThrow(() -> new UserNotFoundException(String.format("Username doesn't exist, %s", username)));
 	}
 
@@ -0,0 +1,76 @@
+package com.bptn.feedapp.benchmark;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.bptn.feedapp.FeedAppApplication;
+
+/*
+ * Boots the application on the "test" profile (in-memory H2) for the benchmarks that need
+ * the real service and repository stack, and seeds it with users and feeds.
+ */
+public final class BenchmarkContext {
+
+	public static final String USERNAME_FORMAT = "benchuser%d";
+
+	private BenchmarkContext() {
+
+	}
+
+	public static ConfigurableApplicationContext start(String... properties) {
+
+		List<String> props = new ArrayList<>(List.of("server.port=0", 
+				                                     "spring.devtools.restart.enabled=false",
+				                                     "spring.jpa.show-sql=false",
+				                                     "spring.jpa.properties.hibernate.format_sql=false",
+				                                     "logging.level.web=WARN", 
+				                                     "logging.level.com.bptn.feedapp=WARN"));
+		props.addAll(List.of(properties));
+
+		return new SpringApplicationBuilder(FeedAppApplication.class).profiles("test")
+				.properties(props.toArray(String[]::new)).run();
+	}
+
+	/* Users are created with ids 1..users, feeds are spread round robin over them. */
+	public static void seed(JdbcTemplate jdbcTemplate, int users, int feeds) {
+
+		Timestamp now = Timestamp.from(Instant.now());
+
+		List<Object[]> userRows = new ArrayList<>();
+
+		for (int i = 1; i <= users; i++) {
+			userRows.add(new Object[] { "First" + i, "Last" + i, String.format(USERNAME_FORMAT, i), "555" + i,
+					String.format(USERNAME_FORMAT, i) + "@example.com", "password", true, now });
+		}
+
+		jdbcTemplate.batchUpdate("INSERT INTO \"User\" (\"firstName\", \"lastName\", username, phone, \"emailId\", password, \"emailVerified\", \"createdOn\") VALUES (?, ?, ?, ?, ?, ?, ?, ?)", userRows);
+
+		List<Object[]> feedRows = new ArrayList<>();
+
+		for (int n = 0; n < feeds; n++) {
+
+			feedRows.add(new Object[] { "Benchmark feed number " + n, now, (n % users) + 1 });
+
+			if (feedRows.size() == 10_000 || n == feeds - 1) {
+				jdbcTemplate.batchUpdate("INSERT INTO \"Feed\" (content, \"createdOn\", \"userId\", \"likeCount\", \"commentCount\") VALUES (?, ?, ?, 0, 0)", feedRows);
+				feedRows.clear();
+			}
+		}
+	}
+
+	/* The services read the caller from the Spring Security context of the current thread. */
+	public static void authenticate(int userId) {
+
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(String.format(USERNAME_FORMAT, userId), null, null));
+	}
+
+}
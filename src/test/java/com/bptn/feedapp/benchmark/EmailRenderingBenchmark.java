@@ -0,0 +1,99 @@
+package com.bptn.feedapp.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.bptn.feedapp.service.EmailRenderer;
+
+/* Verification emails rendered per message by Thymeleaf vs the compiled EmailRenderer, in messages per second on one thread. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailRenderingBenchmark {
+
+	static final int BATCH = 100;
+
+	SpringTemplateEngine templateEngine;
+	EmailRenderer emailRenderer;
+	ResourceProvider provider;
+
+	List<User> users = new ArrayList<>();
+	List<String> tokens = new ArrayList<>();
+
+	@Setup
+	public void setup() {
+
+		/* Same resolution as the Spring Boot Thymeleaf auto-configuration, cache on */
+		ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+		resolver.setPrefix("templates/");
+		resolver.setSuffix(".html");
+		resolver.setTemplateMode(TemplateMode.HTML);
+		resolver.setCharacterEncoding("UTF-8");
+		resolver.setCacheable(true);
+
+		this.templateEngine = new SpringTemplateEngine();
+		this.templateEngine.setTemplateResolver(resolver);
+
+		this.provider = new ResourceProvider();
+		ReflectionTestUtils.setField(this.provider, "clientUrl", "http://localhost:3000");
+
+		this.emailRenderer = new EmailRenderer();
+		ReflectionTestUtils.setField(this.emailRenderer, "templateEngine", this.templateEngine);
+		ReflectionTestUtils.setField(this.emailRenderer, "provider", this.provider);
+
+		for (int i = 0; i < BATCH; i++) {
+			this.users.add(JsonSerializationBenchmark.user(i));
+			this.tokens.add("eyJ0eXAiOiJKV1QiLCJhbGciOiJIUzUxMiJ9.eyJzdWIiOiJ1c2VyIn0.signature" + i);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public List<String> thymeleaf() {
+
+		List<String> emails = new ArrayList<>(BATCH);
+
+		for (int i = 0; i < BATCH; i++) {
+
+			Context context = new Context();
+			context.setVariable("user", this.users.get(i));
+			context.setVariable("client", "http://localhost:3000");
+			context.setVariable("param", "user/verifyEmail");
+			context.setVariable("token", this.tokens.get(i));
+
+			emails.add(this.templateEngine.process("verify_email", context));
+		}
+
+		return emails;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public List<String> compiled() {
+		return this.emailRenderer.render("verify_email", "user/verifyEmail", this.users, this.tokens);
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.bptn.feedapp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bptn.feedapp.domain.CursorResponse;
+import com.bptn.feedapp.domain.PageResponse;
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.service.FeedService;
+
+/*
+ * FeedService.getOtherUsersFeeds() on an H2 database seeded with 100k feeds,
+ * offset pages (with their count query) against keyset pages at the same depth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeedServiceBenchmark {
+
+	static final int USERS = 100;
+	static final int FEEDS = 100_000;
+
+	@Param({ "20" })
+	int pageSize;
+
+	@Param({ "0", "500" })
+	int pageNum;
+
+	ConfigurableApplicationContext context;
+	FeedService feedService;
+	String cursor;
+
+	@Setup
+	public void setup() {
+
+		this.context = BenchmarkContext.start();
+		BenchmarkContext.seed(this.context.getBean(JdbcTemplate.class), USERS, FEEDS);
+
+		this.feedService = this.context.getBean(FeedService.class);
+
+		/* Keyset cursor pointing at the same depth as pageNum. */
+		if (this.pageNum > 0) {
+
+			BenchmarkContext.authenticate(1);
+			Feed last = this.feedService.getOtherUsersFeeds(this.pageNum - 1, this.pageSize).getContent().get(this.pageSize - 1);
+
+			this.cursor = CursorResponse.encode(last.getFeedId());
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public PageResponse<Feed> offsetPage() {
+
+		BenchmarkContext.authenticate(1);
+		return this.feedService.getOtherUsersFeeds(this.pageNum, this.pageSize);
+	}
+
+	@Benchmark
+	public CursorResponse<Feed> keysetPage() {
+
+		BenchmarkContext.authenticate(1);
+		return this.feedService.getOtherUsersFeeds(this.cursor, this.pageSize);
+	}
+
+}
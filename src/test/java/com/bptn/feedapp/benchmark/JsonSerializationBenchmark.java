@@ -0,0 +1,127 @@
+package com.bptn.feedapp.benchmark;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.bptn.feedapp.domain.PageResponse;
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.jpa.FeedMetaData;
+import com.bptn.feedapp.jpa.Profile;
+import com.bptn.feedapp.jpa.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/* Jackson serialization of a single Feed and of a PageResponse<Feed>, with metaDataSize metadata rows per feed. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+	static final int PAGE_SIZE = 20;
+
+	@Param({ "0", "10", "100" })
+	int metaDataSize;
+
+	ObjectMapper objectMapper;
+	Feed feed;
+	PageResponse<Feed> page;
+
+	static User user(int i) {
+
+		User user = new User();
+
+		user.setUserId(i);
+		user.setFirstName("First" + i);
+		user.setLastName("Last" + i);
+		user.setUsername("user" + i);
+		user.setPhone("555000" + i);
+		user.setEmailId("user" + i + "@example.com");
+		user.setEmailVerified(true);
+		user.setCreatedOn(Timestamp.from(Instant.now()));
+
+		Profile profile = new Profile();
+		profile.setHeadline("Headline of user " + i);
+		profile.setBio("A short bio, a couple of sentences long, like most of the profiles we store.");
+		profile.setCity("Toronto");
+		profile.setCountry("Canada");
+		user.setProfile(profile);
+
+		return user;
+	}
+
+	static Feed feed(int feedId, int metaDataSize) {
+
+		Feed feed = new Feed();
+
+		feed.setFeedId(feedId);
+		feed.setContent("Feed content with a realistic length, a sentence or two about what the user is up to today.");
+		feed.setPicture("https://example.com/pictures/" + feedId + ".png");
+		feed.setCreatedOn(Timestamp.from(Instant.now()));
+		feed.setUser(user(feedId % 50));
+
+		List<FeedMetaData> metaData = new ArrayList<>();
+
+		for (int i = 0; i < metaDataSize; i++) {
+
+			FeedMetaData meta = new FeedMetaData();
+			meta.setFeedMetaDataId(feedId * 1_000 + i);
+			meta.setIsLike(i % 2 == 0);
+			meta.setComment(meta.getIsLike() ? "" : "Nice one!");
+			meta.setCreatedOn(Timestamp.from(Instant.now()));
+			meta.setUser(user(i % 50));
+			metaData.add(meta);
+		}
+
+		feed.setFeedMetaData(metaData);
+		feed.setLikeCount((metaDataSize + 1) / 2);
+		feed.setCommentCount(metaDataSize / 2);
+
+		return feed;
+	}
+
+	@Setup
+	public void setup() {
+
+		this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		this.feed = feed(1, this.metaDataSize);
+
+		List<Feed> feeds = new ArrayList<>();
+
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			feeds.add(feed(i + 1, this.metaDataSize));
+		}
+
+		this.page = new PageResponse<Feed>(new PageImpl<>(feeds, PageRequest.of(0, PAGE_SIZE), 100_000));
+	}
+
+	@Benchmark
+	public byte[] feed() throws Exception {
+		return this.objectMapper.writeValueAsBytes(this.feed);
+	}
+
+	@Benchmark
+	public byte[] pageResponse() throws Exception {
+		return this.objectMapper.writeValueAsBytes(this.page);
+	}
+
+}
@@ -0,0 +1,139 @@
+package com.bptn.feedapp.benchmark;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.auth0.jwt.JWT;
+import com.bptn.feedapp.filter.JwtAuthorizationFilter;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.bptn.feedapp.security.JwtService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/*
+ * Per-request cost of JwtAuthorizationFilter for a client that sends the same token again and again.
+ * "legacy" rebuilds the Algorithm and JWTVerifier and verifies the token on every request (the old JwtService),
+ * "cached" uses the prebuilt verifier and the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthorizationFilterBenchmark {
+
+	/* The old JwtService.getSubject(), kept here as the baseline. */
+	static class LegacyJwtService extends JwtService {
+
+		final ResourceProvider legacyProvider;
+
+		LegacyJwtService(ResourceProvider legacyProvider) {
+			this.legacyProvider = legacyProvider;
+		}
+
+		@Override
+		public String getSubject(String token) {
+			return JWT.require(HMAC512(this.legacyProvider.getJwtSecret())).withIssuer(this.legacyProvider.getJwtIssuer()).build()
+					.verify(token).getSubject();
+		}
+	}
+
+	JwtAuthorizationFilter legacyFilter;
+	JwtAuthorizationFilter cachedFilter;
+	String header;
+
+	static ResourceProvider resourceProvider() {
+
+		ResourceProvider provider = new ResourceProvider();
+
+		ReflectionTestUtils.setField(provider, "jwtSecret", "2?Q:mba;7mvN[^0=Ixw54z@YOiySC!TqGF)-20tOL`*qs^AlK_|gYoS;ah0r2Oj");
+		ReflectionTestUtils.setField(provider, "jwtIssuer", "Obsidi Academy");
+		ReflectionTestUtils.setField(provider, "jwtAudience", "feedApp");
+		ReflectionTestUtils.setField(provider, "jwtPrefix", "Bearer ");
+		ReflectionTestUtils.setField(provider, "jwtExpiration", 86_400_000L);
+		ReflectionTestUtils.setField(provider, "jwtCacheSize", 10_000L);
+
+		return provider;
+	}
+
+	static JwtService jwtService(JwtService jwtService, ResourceProvider provider) {
+
+		ReflectionTestUtils.setField(jwtService, "provider", provider);
+		jwtService.init();
+
+		return jwtService;
+	}
+
+	static JwtAuthorizationFilter filter(JwtService jwtService, ResourceProvider provider) {
+
+		JwtAuthorizationFilter filter = new JwtAuthorizationFilter();
+
+		ReflectionTestUtils.setField(filter, "jwtService", jwtService);
+		ReflectionTestUtils.setField(filter, "provider", provider);
+		ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+		filter.init();
+
+		return filter;
+	}
+
+	@Setup
+	public void setup() {
+
+		/* Same level as a production deployment, the debug lines of the filter are not what we measure here. */
+		((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+
+		ResourceProvider provider = resourceProvider();
+		JwtService jwtService = jwtService(new JwtService(), provider);
+
+		this.legacyFilter = filter(jwtService(new LegacyJwtService(provider), provider), provider);
+		this.cachedFilter = filter(jwtService, provider);
+		this.header = provider.getJwtPrefix() + jwtService.generateJwtToken("johndoe", provider.getJwtExpiration());
+	}
+
+	private Object doFilter(JwtAuthorizationFilter filter) throws Exception {
+
+		MockHttpServletRequest req = new MockHttpServletRequest("GET", "/feeds/other/0/20");
+		req.addHeader(AUTHORIZATION, this.header);
+
+		filter.doFilter(req, new MockHttpServletResponse(), new MockFilterChain());
+
+		Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+		SecurityContextHolder.clearContext();
+
+		return principal;
+	}
+
+	@Benchmark
+	public Object legacy() throws Exception {
+		return this.doFilter(this.legacyFilter);
+	}
+
+	@Benchmark
+	public Object cached() throws Exception {
+		return this.doFilter(this.cachedFilter);
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.bptn.feedapp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.bptn.feedapp.security.JwtService;
+
+/* Token generation, and verification with and without the verified-token cache. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+	JwtService jwtService;
+	JwtService uncachedJwtService;
+	String token;
+
+	@Setup
+	public void setup() {
+
+		ResourceProvider provider = JwtAuthorizationFilterBenchmark.resourceProvider();
+		this.jwtService = JwtAuthorizationFilterBenchmark.jwtService(new JwtService(), provider);
+
+		ResourceProvider uncachedProvider = JwtAuthorizationFilterBenchmark.resourceProvider();
+		ReflectionTestUtils.setField(uncachedProvider, "jwtCacheSize", 0L);
+		this.uncachedJwtService = JwtAuthorizationFilterBenchmark.jwtService(new JwtService(), uncachedProvider);
+
+		this.token = this.jwtService.generateJwtToken("johndoe", provider.getJwtExpiration());
+	}
+
+	@Benchmark
+	public String generateJwtToken() {
+		return this.jwtService.generateJwtToken("johndoe", 86_400_000L);
+	}
+
+	@Benchmark
+	public DecodedJWT verifyJwtToken() {
+		return this.jwtService.verifyJwtToken(this.token);
+	}
+
+	@Benchmark
+	public DecodedJWT verifyJwtTokenUncached() {
+		return this.uncachedJwtService.verifyJwtToken(this.token);
+	}
+
+}
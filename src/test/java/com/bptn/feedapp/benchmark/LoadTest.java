@@ -0,0 +1,140 @@
+package com.bptn.feedapp.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bptn.feedapp.security.JwtService;
+
+/*
+ * Closed-loop load test of GET /feeds/other: "loadtest.concurrency" clients send requests back to back
+ * for "loadtest.seconds", once with platform request threads and once with spring.threads.virtual.enabled.
+ * Prints throughput and latency percentiles for both runs.
+ */
+public class LoadTest {
+
+	static final int USERS = 100;
+	static final int FEEDS = 100_000;
+	static final Duration WARMUP = Duration.ofSeconds(5);
+
+	record Result(long requests, long errors, long[] latencies, Duration duration) {
+
+		double throughput() {
+			return this.requests / (this.duration.toMillis() / 1000.0);
+		}
+
+		double percentile(double p) {
+			return this.latencies.length == 0 ? 0 
+					: this.latencies[(int) Math.min(this.latencies.length - 1, Math.ceil(p * this.latencies.length) - 1)] / 1_000_000.0;
+		}
+	}
+
+	/* One client: sends requests until the deadline, latencies are only kept after the warmup. */
+	static long[] client(HttpClient httpClient, HttpRequest request, long warmupEnd, long deadline, long[] errors) {
+
+		List<Long> latencies = new ArrayList<>();
+
+		while (System.nanoTime() < deadline) {
+
+			long start = System.nanoTime();
+
+			try {
+				HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+
+				if (response.statusCode() != 200) {
+					errors[0]++;
+				}
+			} catch (Exception ex) {
+				errors[0]++;
+			}
+
+			if (start >= warmupEnd) {
+				latencies.add(System.nanoTime() - start);
+			}
+		}
+
+		return latencies.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	static Result run(int port, JwtService jwtService, int concurrency, Duration duration) throws Exception {
+
+		HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+				.executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+
+		long warmupEnd = System.nanoTime() + WARMUP.toNanos();
+		long deadline = warmupEnd + duration.toNanos();
+
+		List<Future<long[]>> futures = new ArrayList<>();
+		long[][] errors = new long[concurrency][1];
+
+		try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+
+			for (int i = 0; i < concurrency; i++) {
+
+				String username = String.format(BenchmarkContext.USERNAME_FORMAT, (i % USERS) + 1);
+				HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/feeds/other?limit=20"))
+						.header("Authorization", "Bearer " + jwtService.generateJwtToken(username, 3_600_000)).GET().build();
+
+				long[] clientErrors = errors[i];
+				futures.add(clients.submit(() -> client(httpClient, request, warmupEnd, deadline, clientErrors)));
+			}
+		}
+
+		long[] latencies = new long[0];
+
+		for (Future<long[]> future : futures) {
+
+			long[] clientLatencies = future.get();
+			long[] merged = Arrays.copyOf(latencies, latencies.length + clientLatencies.length);
+
+			System.arraycopy(clientLatencies, 0, merged, latencies.length, clientLatencies.length);
+			latencies = merged;
+		}
+
+		Arrays.sort(latencies);
+
+		return new Result(latencies.length, Arrays.stream(errors).mapToLong(e -> e[0]).sum(), latencies, duration);
+	}
+
+	public static void main(String[] args) throws Exception {
+
+		int concurrency = Integer.getInteger("loadtest.concurrency", 200);
+		Duration duration = Duration.ofSeconds(Long.getLong("loadtest.seconds", 20));
+
+		List<String> report = new ArrayList<>();
+
+		for (boolean virtual : new boolean[] { false, true }) {
+
+			ConfigurableApplicationContext context = BenchmarkContext.start("spring.threads.virtual.enabled=" + virtual,
+					"spring.datasource.url=jdbc:h2:mem:loadtest" + virtual);
+
+			try {
+				BenchmarkContext.seed(context.getBean(JdbcTemplate.class), USERS, FEEDS);
+
+				int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+				Result result = run(port, context.getBean(JwtService.class), concurrency, duration);
+
+				report.add(String.format("virtual threads: %-5s  concurrency: %d  requests: %d  errors: %d  throughput: %.0f req/s  p50: %.2f ms  p99: %.2f ms  max: %.2f ms",
+						virtual, concurrency, result.requests(), result.errors(), result.throughput(),
+						result.percentile(0.50), result.percentile(0.99), result.percentile(1.0)));
+			} finally {
+				context.close();
+			}
+		}
+
+		report.forEach(System.out::println);
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.bptn.feedapp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/* BCrypt encode and matches at different cost factors, 10 is the BCryptPasswordEncoder default. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+	@Param({ "4", "8", "10", "12" })
+	int strength;
+
+	BCryptPasswordEncoder passwordEncoder;
+	String hash;
+
+	@Setup
+	public void setup() {
+
+		this.passwordEncoder = new BCryptPasswordEncoder(this.strength);
+		this.hash = this.passwordEncoder.encode("mypassword");
+	}
+
+	@Benchmark
+	public String encode() {
+		return this.passwordEncoder.encode("mypassword");
+	}
+
+	@Benchmark
+	public boolean matches() {
+		return this.passwordEncoder.matches("mypassword", this.hash);
+	}
+
+}
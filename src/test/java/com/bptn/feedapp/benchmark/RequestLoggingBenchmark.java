@@ -0,0 +1,159 @@
+package com.bptn.feedapp.benchmark;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.bptn.feedapp.config.SampledLoggerFilter;
+import com.bptn.feedapp.filter.JwtAuthorizationFilter;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.bptn.feedapp.security.JwtService;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+
+/*
+ * Logging cost of one authenticated request: the JwtAuthorizationFilter debug lines, a
+ * controller debug line and two SQL statements logged by Hibernate.
+ * "dev" is the default profile (DEBUG, every SQL statement, synchronous appender),
+ * "prod" the prod profile (INFO, one SQL statement in 100, async appender) and
+ * "prodSync" the prod levels with a synchronous appender.
+ * Events are formatted with the Spring Boot console pattern into a discarding stream,
+ * a real console adds the write itself on top of the "dev" numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestLoggingBenchmark {
+
+	static final String SQL = "select f1_0.\"feedId\",f1_0.content,f1_0.\"createdOn\" from \"Feed\" f1_0 where f1_0.\"userId\"=? order by f1_0.\"feedId\" desc fetch first ? rows only";
+
+	@Param({ "dev", "prodSync", "prod" })
+	String profile;
+
+	LoggerContext loggerContext;
+	Appender<ILoggingEvent> appender;
+
+	JwtAuthorizationFilter filter;
+	String header;
+
+	org.slf4j.Logger controllerLogger = LoggerFactory.getLogger("com.bptn.feedapp.controller.FeedController");
+	org.slf4j.Logger sqlLogger = LoggerFactory.getLogger("org.hibernate.SQL");
+
+	@Setup
+	public void setup() {
+
+		this.loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+		this.loggerContext.reset();
+
+		PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+		encoder.setContext(this.loggerContext);
+		encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p 1234 --- [%15.15t] %-40.40logger{39} : %m%n");
+		encoder.start();
+
+		OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+		output.setContext(this.loggerContext);
+		output.setEncoder(encoder);
+		output.setOutputStream(OutputStream.nullOutputStream());
+		output.start();
+
+		this.appender = output;
+
+		if (this.profile.equals("prod")) {
+
+			/* Same settings as logback-spring.xml */
+			AsyncAppender async = new AsyncAppender();
+			async.setContext(this.loggerContext);
+			async.setQueueSize(8192);
+			async.setDiscardingThreshold(1638);
+			async.setNeverBlock(true);
+			async.setIncludeCallerData(false);
+			async.addAppender(output);
+			async.start();
+
+			this.appender = async;
+		}
+
+		Logger root = this.loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+		root.addAppender(this.appender);
+
+		if (this.profile.equals("dev")) {
+			this.loggerContext.getLogger("web").setLevel(Level.DEBUG);
+			this.loggerContext.getLogger("com.bptn.feedapp").setLevel(Level.DEBUG);
+			this.loggerContext.getLogger("org.hibernate.SQL").setLevel(Level.DEBUG);
+			root.setLevel(Level.INFO);
+
+		} else {
+			SampledLoggerFilter sampled = new SampledLoggerFilter();
+			sampled.setLogger("org.hibernate.SQL");
+			sampled.setRate(100);
+			sampled.start();
+
+			this.loggerContext.addTurboFilter(sampled);
+			this.loggerContext.getLogger("org.hibernate.SQL").setLevel(Level.DEBUG);
+			root.setLevel(Level.INFO);
+		}
+
+		ResourceProvider provider = JwtAuthorizationFilterBenchmark.resourceProvider();
+		JwtService jwtService = JwtAuthorizationFilterBenchmark.jwtService(new JwtService(), provider);
+
+		this.filter = JwtAuthorizationFilterBenchmark.filter(jwtService, provider);
+		this.header = provider.getJwtPrefix() + jwtService.generateJwtToken("johndoe", provider.getJwtExpiration());
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.loggerContext.reset();
+	}
+
+	@Benchmark
+	public Object request() throws Exception {
+
+		MockHttpServletRequest req = new MockHttpServletRequest("GET", "/feeds/user");
+		req.addHeader(AUTHORIZATION, this.header);
+
+		this.filter.doFilter(req, new MockHttpServletResponse(), (request, response) -> {
+
+			this.controllerLogger.debug("Getting User Feeds List, after: {}, limit: {}", null, 20);
+
+			/* Hibernate guards its SQL logging */
+			if (this.sqlLogger.isDebugEnabled()) {
+				this.sqlLogger.debug(SQL);
+				this.sqlLogger.debug(SQL);
+			}
+		});
+
+		Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+		SecurityContextHolder.clearContext();
+
+		return principal;
+	}
+
+}
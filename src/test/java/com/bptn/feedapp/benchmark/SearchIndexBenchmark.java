@@ -0,0 +1,91 @@
+package com.bptn.feedapp.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bptn.feedapp.domain.SearchIndex;
+import com.bptn.feedapp.domain.SearchIndex.Hit;
+
+/*
+ * Query latency of the search index at 1M posts of 8 to 24 words drawn from a Zipf
+ * distributed vocabulary: a rare term, a common term, three terms mixed, and the second
+ * page of the common term through its cursor. The query cost follows the postings walked.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SearchIndexBenchmark {
+
+	static final int POSTS = 1_000_000;
+	static final int VOCABULARY = 50_000;
+	static final int PAGE_SIZE = 20;
+
+	@Param({ "w40000", "w20", "w20 w500 w5000" })
+	String query;
+
+	SearchIndex index;
+	Hit after;
+
+	@Setup
+	public void setup() {
+
+		Random random = new Random(42);
+
+		/* Zipf with s = 1, the word of rank r is drawn with probability 1/r */
+		double[] cumulative = new double[VOCABULARY];
+		double sum = 0;
+
+		for (int r = 0; r < VOCABULARY; r++) {
+			cumulative[r] = sum += 1.0 / (r + 1);
+		}
+
+		this.index = new SearchIndex();
+		StringBuilder text = new StringBuilder();
+
+		for (int feedId = 1; feedId <= POSTS; feedId++) {
+
+			text.setLength(0);
+
+			for (int words = 8 + random.nextInt(17); words > 0; words--) {
+				int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+				text.append('w').append(rank < 0 ? -rank - 1 : rank).append(' ');
+			}
+
+			this.index.add(feedId, text.toString());
+		}
+
+		List<Hit> first = this.index.search(this.query, null, PAGE_SIZE);
+		this.after = first.isEmpty() ? null : first.get(first.size() - 1);
+
+		System.out.printf("%nquery: %s, documents: %d, terms: %d, hits on the first page: %d%n", this.query,
+				this.index.getDocuments(), this.index.getTerms(), first.size());
+	}
+
+	@Benchmark
+	public List<Hit> firstPage() {
+		return this.index.search(this.query, null, PAGE_SIZE + 1);
+	}
+
+	@Benchmark
+	public List<Hit> nextPage() {
+		return this.index.search(this.query, this.after, PAGE_SIZE + 1);
+	}
+
+}
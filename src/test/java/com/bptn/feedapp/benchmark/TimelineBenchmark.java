@@ -0,0 +1,104 @@
+package com.bptn.feedapp.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bptn.feedapp.domain.CursorResponse;
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.repository.FeedRepository;
+import com.bptn.feedapp.repository.UserRepository;
+import com.bptn.feedapp.service.FeedService;
+import com.bptn.feedapp.service.TimelineService;
+
+/*
+ * First page of the home timeline at 1M feeds: the sorted findByUserNot query (fan-out-on-read)
+ * against the primary key lookup from the warm in-memory timeline, the whole service call,
+ * and the cost createFeed() pays to push a feed to the active users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TimelineBenchmark {
+
+	static final int USERS = 1_000;
+	static final int FEEDS = 1_000_000;
+	static final int PAGE_SIZE = 20;
+
+	ConfigurableApplicationContext context;
+	FeedService feedService;
+	TimelineService timelineService;
+	FeedRepository feedRepository;
+	User user;
+	Feed feed;
+
+	@Setup
+	public void setup() {
+
+		this.context = BenchmarkContext.start();
+		BenchmarkContext.seed(this.context.getBean(JdbcTemplate.class), USERS, FEEDS);
+
+		this.feedService = this.context.getBean(FeedService.class);
+		this.timelineService = this.context.getBean(TimelineService.class);
+		this.feedRepository = this.context.getBean(FeedRepository.class);
+		this.user = this.context.getBean(UserRepository.class).findById(1).get();
+
+		/* Every user has read the timeline once, so every user is active. */
+		this.context.getBean(UserRepository.class).findAll()
+				.forEach(u -> this.timelineService.getFeedIds(u, null, PAGE_SIZE));
+
+		this.feed = this.feedRepository.findById(FEEDS).get();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public List<Feed> fanOutOnRead() {
+		return this.feedRepository.findByUserNotOrderByFeedIdDesc(this.user, Limit.of(PAGE_SIZE + 1));
+	}
+
+	@Benchmark
+	public List<Feed> homeTimeline() {
+
+		int[] ids = this.timelineService.getFeedIds(this.user, null, PAGE_SIZE + 1).get();
+
+		return this.feedRepository.findByFeedIdInOrderByFeedIdDesc(Arrays.stream(ids).boxed().toList());
+	}
+
+	@Benchmark
+	public CursorResponse<Feed> getOtherUsersFeeds() {
+
+		BenchmarkContext.authenticate(1);
+		return this.feedService.getOtherUsersFeeds(null, PAGE_SIZE);
+	}
+
+	@Benchmark
+	public void fanOutOnWrite() {
+
+		/* Same feedId again, the timelines ignore it after the first push but still pay the lookup. */
+		this.timelineService.publish(this.feed);
+	}
+
+}
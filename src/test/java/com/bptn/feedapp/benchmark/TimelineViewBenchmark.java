@@ -0,0 +1,78 @@
+package com.bptn.feedapp.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.bptn.feedapp.domain.CompactTimeline;
+import com.bptn.feedapp.domain.CursorResponse;
+import com.bptn.feedapp.jpa.Feed;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/*
+ * One timeline page of 20 feeds written by the given number of authors, serialized as the
+ * full CursorResponse<Feed> and as a CompactTimeline. The page sizes are printed in setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimelineViewBenchmark {
+
+	static final int PAGE_SIZE = 20;
+
+	@Param({ "1", "5", "20" })
+	int authors;
+
+	ObjectMapper objectMapper;
+	ObjectWriter compactWriter;
+	CursorResponse<Feed> page;
+
+	@Setup
+	public void setup() throws Exception {
+
+		this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		this.compactWriter = this.objectMapper.writerFor(CompactTimeline.class);
+
+		List<Feed> feeds = new ArrayList<>();
+
+		/* Timelines are read without their metadata, the list stays unloaded */
+		for (int i = 0; i <= PAGE_SIZE; i++) {
+			Feed feed = JsonSerializationBenchmark.feed(1_000 - i, 0);
+			feed.setUser(JsonSerializationBenchmark.user(i % this.authors));
+			feed.setFeedMetaData(null);
+			feeds.add(feed);
+		}
+
+		this.page = new CursorResponse<Feed>(feeds, PAGE_SIZE, Feed::getFeedId);
+
+		System.out.printf("%n%d authors, full: %d bytes, compact: %d bytes%n", this.authors, this.full().length, this.compact().length);
+	}
+
+	@Benchmark
+	public byte[] full() throws Exception {
+		return this.objectMapper.writeValueAsBytes(this.page);
+	}
+
+	@Benchmark
+	public byte[] compact() throws Exception {
+		return this.compactWriter.writeValueAsBytes(new CompactTimeline(this.page));
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.bptn.feedapp.controller;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.bptn.feedapp.domain.CursorResponse;
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.repository.FeedRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class CursorPaginationTest extends IntegrationTest {
+
+	static final int FEEDS = 4;
+
+	String jwt;
+
+	/* Newest first, the order of the pages */
+	List<Integer> feedIds = new ArrayList<>();
+
+	@Autowired
+	FeedRepository feedRepository;
+
+	@BeforeAll
+	public void setup() {
+
+		User user = this.createUser("cursoruser");
+
+		for (int i = 0; i < FEEDS; i++) {
+
+			Feed feed = new Feed();
+			feed.setContent("Cursor feed " + i);
+			feed.setCreatedOn(Timestamp.from(Instant.now()));
+			feed.setUser(user);
+
+			this.feedIds.add(0, this.feedRepository.save(feed).getFeedId());
+		}
+
+		this.jwt = this.bearer(user.getUsername());
+	}
+
+	private ResultActions userFeeds(String query) throws Exception {
+		return this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?" + query).header(AUTHORIZATION, this.jwt));
+	}
+
+	private JsonNode page(String query) throws Exception {
+		return this.objectMapper.readTree(this.userFeeds(query).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+	}
+
+	@Test
+	public void cursorRoundTripTest() throws Exception {
+
+		assertEquals(Optional.of(42), CursorResponse.decode(CursorResponse.encode(42)));
+		assertEquals(Optional.empty(), CursorResponse.decode(null));
+		assertEquals(Optional.empty(), CursorResponse.decode(" "));
+
+		/* The cursor points at the last feed of the page, the next page starts right below it */
+		JsonNode first = this.page("limit=1");
+		String cursor = first.get("nextCursor").asText();
+
+		assertEquals(this.feedIds.get(0), first.get("content").get(0).get("feedId").asInt());
+		assertEquals(Optional.of(this.feedIds.get(0)), CursorResponse.decode(cursor));
+		assertEquals(this.feedIds.get(1), this.page("limit=1&after=" + cursor).get("content").get(0).get("feedId").asInt());
+	}
+
+	@Test
+	public void nextCursorTest() throws Exception {
+
+		/* A full page with one more row behind it */
+		JsonNode first = this.page("limit=" + (FEEDS - 2));
+
+		assertEquals(FEEDS - 2, first.get("content").size());
+		assertEquals(Optional.of(this.feedIds.get(FEEDS - 3)), CursorResponse.decode(first.get("nextCursor").asText()));
+
+		/* A full page with nothing behind it has no next page */
+		this.userFeeds("limit=" + (FEEDS - 2) + "&after=" + first.get("nextCursor").asText())
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(FEEDS - 2)))
+				.andExpect(jsonPath("$.content[1].feedId", is(this.feedIds.get(FEEDS - 1))))
+				.andExpect(jsonPath("$.nextCursor", nullValue()));
+
+		this.userFeeds("limit=" + FEEDS)
+				.andExpect(jsonPath("$.content.length()", is(FEEDS)))
+				.andExpect(jsonPath("$.nextCursor", nullValue()));
+	}
+
+	@Test
+	public void limitClampTest() throws Exception {
+
+		this.userFeeds("limit=0")
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.limit", is(1)))
+				.andExpect(jsonPath("$.content.length()", is(1)));
+
+		this.userFeeds("limit=-5")
+				.andExpect(jsonPath("$.limit", is(1)));
+
+		this.userFeeds("limit=" + (CursorResponse.MAX_LIMIT + 1))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.limit", is(CursorResponse.MAX_LIMIT)))
+				.andExpect(jsonPath("$.content.length()", is(FEEDS)));
+	}
+
+	@Test
+	public void malformedCursorTest() throws Exception {
+
+		/* Not Base64, and Base64 of "not-a-number" */
+		for (String cursor : new String[] { "%%%", "bm90LWEtbnVtYmVy" }) {
+
+			this.userFeeds("limit=1&after=" + cursor)
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.httpStatusCode", is(400)))
+					.andExpect(jsonPath("$.message", startsWith("Invalid cursor")));
+		}
+	}
+
+}
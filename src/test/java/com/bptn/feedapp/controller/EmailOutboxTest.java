@@ -0,0 +1,168 @@
+package com.bptn.feedapp.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import com.bptn.feedapp.jpa.EmailOutbox;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.repository.EmailOutboxRepository;
+import com.bptn.feedapp.service.EmailDispatcher;
+import com.bptn.feedapp.service.EmailRenderer;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+
+@TestPropertySource(properties = { "email.outbox.enabled=true",
+		"email.outbox.poll-interval=3600000",
+		"spring.mail.host=localhost",
+		"spring.mail.port=3025",
+		"spring.mail.properties.mail.smtp.starttls.enable=false" })
+@TestMethodOrder(OrderAnnotation.class)
+public class EmailOutboxTest extends IntegrationTest {
+
+	@RegisterExtension
+	static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+			.withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication()).withPerMethodLifecycle(false);
+
+	@Autowired
+	EmailDispatcher emailDispatcher;
+
+	@Autowired
+	EmailOutboxRepository emailOutboxRepository;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Autowired
+	EmailRenderer emailRenderer;
+
+	@Autowired
+	TemplateEngine templateEngine;
+
+	/* Workers update the outbox asynchronously */
+	private EmailOutbox awaitEmail(Predicate<EmailOutbox> condition) throws InterruptedException {
+
+		for (int i = 0; i < 100; i++) {
+
+			EmailOutbox email = this.emailOutboxRepository.findAll().get(0);
+
+			if (condition.test(email)) {
+				return email;
+			}
+
+			Thread.sleep(100);
+		}
+
+		throw new AssertionError("Outbox email not updated");
+	}
+
+	@Test
+	@Order(1)
+	public void signupEmailTest() throws Exception {
+
+		ObjectNode user = this.objectMapper.createObjectNode();
+
+		user.put("firstName", "Mail");
+		user.put("lastName", "User");
+		user.put("username", "mailuser");
+		user.put("password", "password");
+		user.put("phone", "5550001");
+		user.put("emailId", "mailuser@example.com");
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/user/signup").contentType(MediaType.APPLICATION_JSON)
+				.content(user.toString())).andExpect(status().isOk());
+
+		/* Signup only queues the email */
+		assertEquals(1, this.emailOutboxRepository.countByStatus(EmailOutbox.PENDING));
+		assertEquals(0, greenMail.getReceivedMessages().length);
+
+		this.emailDispatcher.samplePending();
+		assertEquals(1.0, this.meterRegistry.get("email.outbox.pending").gauge().value());
+
+		this.emailDispatcher.drain();
+
+		assertTrue(greenMail.waitForIncomingEmail(10_000, 1));
+
+		MimeMessage message = greenMail.getReceivedMessages()[0];
+		assertEquals("Welcome Mail User", message.getSubject());
+		assertEquals("mailuser@example.com", message.getAllRecipients()[0].toString());
+		assertTrue(GreenMailUtil.getBody(message).contains("/user/verifyEmail?token=3D"));
+
+		EmailOutbox email = this.awaitEmail(e -> EmailOutbox.SENT.equals(e.getStatus()));
+		assertEquals(1, email.getAttempts());
+		assertNotNull(email.getSentOn());
+		assertEquals(1.0, this.meterRegistry.counter("email.sent").count());
+	}
+
+	@Test
+	@Order(2)
+	public void renderEmailTest() throws Exception {
+
+		User user = new User();
+		user.setFirstName("<Zoë & \"Jo\">");
+		user.setLastName("O'Neil");
+		user.setUsername("jo<script>");
+
+		for (String templateName : List.of("verify_email", "reset_password")) {
+
+			Context context = new Context();
+			context.setVariable("user", user);
+			context.setVariable("client", "http://localhost:3000");
+			context.setVariable("param", "user/param");
+			context.setVariable("token", "a.b.c");
+
+			/* The compiled template renders exactly what Thymeleaf renders */
+			assertEquals(this.templateEngine.process(templateName, context),
+					this.emailRenderer.render(templateName, "user/param", user, "a.b.c"));
+		}
+	}
+
+	@Test
+	@Order(3)
+	public void retryEmailTest() throws Exception {
+
+		this.emailOutboxRepository.deleteAll();
+
+		/* SMTP server down, the email stays in the outbox with a delayed retry */
+		greenMail.stop();
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/user/reset/mailuser@example.com")).andExpect(status().isOk());
+
+		this.emailDispatcher.drain();
+
+		EmailOutbox email = this.awaitEmail(e -> e.getAttempts() == 1);
+		assertEquals(EmailOutbox.PENDING, email.getStatus());
+		assertEquals(EmailOutbox.RESET, email.getEmailType());
+		assertNotNull(email.getLastError());
+		assertTrue(email.getNextAttemptOn().toInstant().isAfter(Instant.now()));
+
+		/* Not due yet */
+		this.emailDispatcher.drain();
+		Thread.sleep(200);
+		assertEquals(1, this.emailOutboxRepository.findAll().get(0).getAttempts());
+	}
+
+}
@@ -0,0 +1,362 @@
+package com.bptn.feedapp.controller;
+
+import static org.hamcrest.CoreMatchers.everyItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.stream.StreamSupport;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.bptn.feedapp.domain.CompactTimeline;
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.jpa.FeedMetaData;
+import com.bptn.feedapp.jpa.Profile;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.repository.FeedMetaDataRepository;
+import com.bptn.feedapp.repository.FeedRepository;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.persistence.EntityManagerFactory;
+
+public class FeedControllerTest extends IntegrationTest {
+
+	static final int USERS = 4;
+	static final int FEEDS_PER_USER = 30;
+
+	String jwt;
+
+	@Autowired
+	FeedRepository feedRepository;
+
+	@Autowired
+	FeedMetaDataRepository feedMetaDataRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	private User createUser(int i) {
+
+		User user = this.newUser("feeduser" + i);
+
+		user.setFirstName("First" + i);
+		user.setLastName("Last" + i);
+
+		Profile profile = new Profile();
+		profile.setHeadline("Headline " + i);
+		profile.setUser(user);
+		user.setProfile(profile);
+
+		return this.userRepository.save(user);
+	}
+
+	@BeforeAll
+	public void setup() {
+
+		User[] users = new User[USERS];
+
+		for (int i = 0; i < USERS; i++) {
+			users[i] = this.createUser(i);
+		}
+
+		/* Every feed gets a like and a comment from two different users. */
+		for (int n = 0; n < FEEDS_PER_USER; n++) {
+			for (int i = 0; i < USERS; i++) {
+
+				Feed feed = new Feed();
+				feed.setContent("Feed " + n + " from " + users[i].getUsername());
+				feed.setCreatedOn(Timestamp.from(Instant.now()));
+				feed.setUser(users[i]);
+				feed.setLikeCount(1);
+				feed.setCommentCount(1);
+				this.feedRepository.save(feed);
+
+				FeedMetaData like = new FeedMetaData();
+				like.setIsLike(true);
+				like.setComment("");
+				like.setFeed(feed);
+				like.setUser(users[(i + 1) % USERS]);
+				like.setLikeUserId(users[(i + 1) % USERS].getUserId());
+				like.setCreatedOn(Timestamp.from(Instant.now()));
+				this.feedMetaDataRepository.save(like);
+
+				FeedMetaData comment = new FeedMetaData();
+				comment.setIsLike(false);
+				comment.setComment("Nice one");
+				comment.setFeed(feed);
+				comment.setUser(users[(i + 2) % USERS]);
+				comment.setCreatedOn(Timestamp.from(Instant.now()));
+				this.feedMetaDataRepository.save(comment);
+			}
+		}
+
+		this.jwt = this.bearer(users[0].getUsername());
+	}
+
+	private long countStatements(String url) throws Exception {
+
+		Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get(url).header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].user.username", notNullValue()))
+				.andExpect(jsonPath("$.content[?(@.user.username =~ /feeduser.*/)].likeCount", everyItem(is(1))))
+				.andExpect(jsonPath("$.content[?(@.user.username =~ /feeduser.*/)].commentCount", everyItem(is(1))))
+				.andExpect(jsonPath("$.content[0].feedMetaData").doesNotExist());
+
+		return statistics.getPrepareStatementCount();
+	}
+
+	@Test
+	public void otherUsersFeedsStatementCountTest() throws Exception {
+
+		long small = this.countStatements("/feeds/other/0/5");
+		long large = this.countStatements("/feeds/other/0/60");
+
+		assertEquals(small, large, "Statement count should not depend on the page size");
+		assertTrue(large <= 4, String.format("Too many statements for one page: %d", large));
+	}
+
+	@Test
+	public void otherUsersFeedsCursorStatementCountTest() throws Exception {
+
+		/* The first read loads the home timeline, later pages are read from it */
+		this.countStatements("/feeds/other?limit=5");
+
+		long small = this.countStatements("/feeds/other?limit=5");
+		long large = this.countStatements("/feeds/other?limit=60");
+
+		assertEquals(small, large, "Statement count should not depend on the limit");
+		assertTrue(large <= 3, String.format("Too many statements for one page: %d", large));
+	}
+
+	@Test
+	public void createFeedMetaDataTest() throws Exception {
+
+		int feedId = this.feedRepository.findAll().stream().filter(f -> f.getUser().getUsername().equals("feeduser1"))
+				.findFirst().get().getFeedId();
+
+		ObjectNode like = this.objectMapper.createObjectNode().put("isLike", true);
+		ObjectNode comment = this.objectMapper.createObjectNode().put("isLike", false).put("comment", "Again");
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds/meta/" + feedId).header(AUTHORIZATION, this.jwt)
+				.contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(like)))
+				.andExpect(status().isOk());
+
+		/* Second like from the same user is rejected by the unique key */
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds/meta/" + feedId).header(AUTHORIZATION, this.jwt)
+				.contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(like)))
+				.andExpect(status().is4xxClientError())
+				.andExpect(jsonPath("$.message", is(String.format("Feed already liked, feedId: %d, username: feeduser0", feedId))));
+
+		/* Comments are not limited */
+		for (int i = 0; i < 2; i++) {
+			this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds/meta/" + feedId).header(AUTHORIZATION, this.jwt)
+					.contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(comment)))
+					.andExpect(status().isOk());
+		}
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId).header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.likeCount", is(2)))
+				.andExpect(jsonPath("$.commentCount", is(3)))
+				.andExpect(jsonPath("$.feedMetaData").doesNotExist());
+
+		/* Comments are streamed page by page, likes are left out */
+		MvcResult first = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId + "/comments?limit=2").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(2)))
+				.andExpect(jsonPath("$.content[0].comment", is("Nice one")))
+				.andExpect(jsonPath("$.nextCursor", notNullValue()))
+				.andReturn();
+
+		String cursor = this.objectMapper.readTree(first.getResponse().getContentAsString()).get("nextCursor").asText();
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId + "/comments?limit=2&after=" + cursor).header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(1)))
+				.andExpect(jsonPath("$.content[0].comment", is("Again")))
+				.andExpect(jsonPath("$.nextCursor").doesNotExist());
+	}
+
+	@Test
+	public void createFeedMetaDataRejectedTest() throws Exception {
+
+		int feedId = this.feedRepository.findAll().stream().filter(f -> f.getUser().getUsername().equals("feeduser3"))
+				.findFirst().get().getFeedId();
+
+		ObjectNode comment = this.objectMapper.createObjectNode().put("isLike", false).put("comment", "x".repeat(256));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds/meta/" + feedId).header(AUTHORIZATION, this.jwt)
+				.contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(comment)))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message", is("Comment is longer than 255 characters")));
+
+		/* Removed behind the cached copy, the insert violates the actionUserId foreign key and not the like key */
+		this.createUser("removeduser");
+		String removedJwt = this.bearer("removeduser");
+
+		this.userRepository.findCachedByUsername("removeduser");
+		this.jdbcTemplate.update("DELETE FROM \"User\" WHERE username = ?", "removeduser");
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds/meta/" + feedId).header(AUTHORIZATION, removedJwt)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"isLike\":true}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message", is(String.format("Like or comment could not be saved, feedId: %d", feedId))));
+	}
+
+	@Test
+	public void homeTimelineTest() throws Exception {
+
+		String otherJwt = this.bearer("feeduser1");
+
+		/* Warm up the home timeline of feeduser0 */
+		String newest = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/other?limit=1").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		int newestId = this.objectMapper.readTree(newest).at("/content/0/feedId").asInt();
+
+		ObjectNode feed = this.objectMapper.createObjectNode().put("content", "Fresh feed");
+
+		MvcResult created = this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds").header(AUTHORIZATION, otherJwt)
+				.contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(feed)))
+				.andExpect(status().isOk())
+				.andReturn();
+
+		int feedId = this.objectMapper.readTree(created.getResponse().getContentAsString()).get("feedId").asInt();
+
+		/* Pushed into the warm timeline */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/other?limit=1").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].feedId", is(feedId)));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.delete("/feeds/" + feedId).header(AUTHORIZATION, otherJwt))
+				.andExpect(status().isOk());
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/other?limit=1").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].feedId", is(newestId)));
+	}
+
+	@Test
+	public void userFeedsCursorTest() throws Exception {
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?limit=20").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(20)))
+				.andExpect(jsonPath("$.nextCursor", notNullValue()));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?limit=20&after=bm90LWEtbnVtYmVy").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().is4xxClientError())
+				.andExpect(jsonPath("$.httpStatusCode", is(400)));
+	}
+
+	@Test
+	public void feedETagTest() throws Exception {
+
+		int feedId = this.feedRepository.findAll().stream().filter(f -> f.getUser().getUsername().equals("feeduser2"))
+				.findFirst().get().getFeedId();
+
+		MvcResult first = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId).header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(ETAG))
+				.andExpect(jsonPath("$.commentCount", is(1)))
+				.andReturn();
+
+		String eTag = first.getResponse().getHeader(ETAG);
+
+		Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		/* The current copy is confirmed without touching the database */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId).header(AUTHORIZATION, this.jwt).header(IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(ETAG, eTag));
+
+		assertEquals(0, statistics.getPrepareStatementCount());
+
+		/* A comment bumps the version */
+		ObjectNode comment = this.objectMapper.createObjectNode().put("isLike", false).put("comment", "Cached");
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds/meta/" + feedId).header(AUTHORIZATION, this.jwt)
+				.contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(comment)))
+				.andExpect(status().isOk());
+
+		MvcResult second = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId).header(AUTHORIZATION, this.jwt).header(IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.commentCount", is(2)))
+				.andReturn();
+
+		assertNotEquals(eTag, second.getResponse().getHeader(ETAG));
+	}
+
+	@Test
+	public void compactTimelineTest() throws Exception {
+
+		MvcResult full = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?limit=20").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andReturn();
+
+		MvcResult compact = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?limit=20&view=compact").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(CompactTimeline.MEDIA_TYPE))
+				.andExpect(jsonPath("$.content.length()", is(20)))
+				.andExpect(jsonPath("$.content[0].feedMetaData").doesNotExist())
+				.andExpect(jsonPath("$.nextCursor", notNullValue()))
+				.andReturn();
+
+		/* One author for the whole page, referenced by userId */
+		int userId = this.objectMapper.readTree(compact.getResponse().getContentAsString()).at("/content/0/userId").asInt();
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?limit=20&view=compact").header(AUTHORIZATION, this.jwt))
+				.andExpect(jsonPath("$.users.length()", is(1)))
+				.andExpect(jsonPath("$.users." + userId + ".username", is("feeduser0")))
+				.andExpect(jsonPath("$.users." + userId + ".profile.headline", is("Headline 0")))
+				.andExpect(jsonPath("$.users." + userId + ".phone").doesNotExist());
+
+		int compactSize = compact.getResponse().getContentAsByteArray().length;
+		int fullSize = full.getResponse().getContentAsByteArray().length;
+
+		assertTrue(compactSize < fullSize / 2, String.format("Compact page not smaller: %d vs %d", compactSize, fullSize));
+
+		/* Same view through the Accept header, the cursor pages the same way */
+		String other = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/other?limit=5").header(AUTHORIZATION, this.jwt))
+				.andReturn().getResponse().getContentAsString();
+
+		long authors = StreamSupport.stream(this.objectMapper.readTree(other).get("content").spliterator(), false)
+				.map(feed -> feed.at("/user/userId").asInt()).distinct().count();
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/other?limit=5").header(AUTHORIZATION, this.jwt)
+				.accept(CompactTimeline.MEDIA_TYPE))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(CompactTimeline.MEDIA_TYPE))
+				.andExpect(jsonPath("$.content.length()", is(5)))
+				.andExpect(jsonPath("$.users.length()", is((int) authors)));
+	}
+
+}
@@ -0,0 +1,187 @@
+package com.bptn.feedapp.controller;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.bptn.feedapp.jpa.Feed;
+import com.bptn.feedapp.jpa.FeedMetaData;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.repository.FeedMetaDataRepository;
+import com.bptn.feedapp.repository.FeedRepository;
+import com.bptn.feedapp.service.FeedMetaBuffer;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@TestPropertySource(properties = { "feed.meta.write-behind.enabled=true", "feed.meta.write-behind.flush-interval=3600000",
+		"feed.meta.write-behind.batch-size=5" })
+public class FeedMetaWriteBehindTest extends IntegrationTest {
+
+	String jwt;
+
+	int[] feedIds = new int[3];
+
+	@Autowired
+	FeedRepository feedRepository;
+
+	@Autowired
+	FeedMetaDataRepository feedMetaDataRepository;
+
+	@Autowired
+	FeedMetaBuffer feedMetaBuffer;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@BeforeAll
+	public void setup() {
+
+		User user = this.createUser("buffereduser");
+
+		for (int i = 0; i < this.feedIds.length; i++) {
+
+			Feed feed = new Feed();
+			feed.setContent("Buffered feed " + i);
+			feed.setCreatedOn(Timestamp.from(Instant.now()));
+			feed.setUser(user);
+
+			this.feedIds[i] = this.feedRepository.save(feed).getFeedId();
+		}
+
+		this.jwt = this.bearer(user.getUsername());
+	}
+
+	private ResultActions post(int feedId, ObjectNode meta, String idempotencyKey) throws Exception {
+
+		return this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds/meta/" + feedId).header(AUTHORIZATION, this.jwt)
+				.header("Idempotency-Key", idempotencyKey)
+				.contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(meta)));
+	}
+
+	@Test
+	public void writeBehindTest() throws Exception {
+
+		int feedId = this.feedIds[0];
+		long written = this.feedMetaDataRepository.count();
+
+		ObjectNode like = this.objectMapper.createObjectNode().put("isLike", true);
+		ObjectNode comment = this.objectMapper.createObjectNode().put("isLike", false).put("comment", "Buffered");
+
+		this.post(feedId, like, "like-1").andExpect(status().isAccepted());
+
+		/* A second like is rejected while the first one is still buffered */
+		this.post(feedId, like, "like-2").andExpect(status().isBadRequest());
+
+		/* Retried with the same key, accepted once */
+		this.post(feedId, comment, "comment-1").andExpect(status().isAccepted()).andExpect(jsonPath("$.comment", is("Buffered")));
+		this.post(feedId, comment, "comment-1").andExpect(status().isAccepted());
+
+		assertEquals(written, this.feedMetaDataRepository.count());
+
+		/* Read-your-writes through the buffer */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId).header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(ETAG))
+				.andExpect(jsonPath("$.likeCount", is(1)))
+				.andExpect(jsonPath("$.commentCount", is(1)));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId + "/comments").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(1)))
+				.andExpect(jsonPath("$.content[0].comment", is("Buffered")));
+
+		this.feedMetaBuffer.flush();
+
+		assertEquals(written + 2, this.feedMetaDataRepository.count());
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/" + feedId).header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(ETAG))
+				.andExpect(jsonPath("$.likeCount", is(1)))
+				.andExpect(jsonPath("$.commentCount", is(1)));
+
+		/* Rejected against the database once flushed */
+		this.post(feedId, like, "like-3").andExpect(status().isBadRequest());
+
+		this.post(0, like, "like-4").andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message", is("Feed doesn't exist, 0")));
+	}
+
+	@Test
+	public void batchSizeFlushTest() throws Exception {
+
+		int feedId = this.feedIds[1];
+
+		ObjectNode comment = this.objectMapper.createObjectNode().put("isLike", false).put("comment", "Batched");
+
+		for (int i = 0; i < 5; i++) {
+			this.post(feedId, comment, "batch-" + i).andExpect(status().isAccepted());
+		}
+
+		/* Flushed in the background once the stripe holds batch-size events */
+		for (int i = 0; i < 50 && this.feedRepository.findById(feedId).get().getCommentCount() < 5; i++) {
+			Thread.sleep(100);
+		}
+
+		assertEquals(5, this.feedRepository.findById(feedId).get().getCommentCount());
+	}
+
+	@Test
+	public void rejectedRowTest() throws Exception {
+
+		int feedId = this.feedIds[2];
+		double dropped = this.meterRegistry.counter("feed.meta.dropped").count();
+
+		/* Refused before the 202, the comment column holds 255 characters */
+		this.post(feedId, this.objectMapper.createObjectNode().put("isLike", false).put("comment", "x".repeat(256)), "long-1")
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message", is("Comment is longer than 255 characters")));
+
+		ObjectNode comment = this.objectMapper.createObjectNode().put("isLike", false).put("comment", "Kept");
+
+		this.post(feedId, comment, "kept-1").andExpect(status().isAccepted());
+
+		/* Buffered behind the API, its author does not exist and the batch fails */
+		User ghost = new User();
+		ghost.setUserId(Integer.MAX_VALUE);
+
+		Feed feed = new Feed();
+		feed.setFeedId(feedId);
+
+		FeedMetaData meta = new FeedMetaData();
+		meta.setIsLike(false);
+		meta.setComment("Ghost");
+		meta.setUser(ghost);
+		meta.setFeed(feed);
+		meta.setCreatedOn(Timestamp.from(Instant.now()));
+
+		assertTrue(this.feedMetaBuffer.add(meta, () -> false));
+
+		this.post(feedId, comment, "kept-2").andExpect(status().isAccepted());
+
+		this.feedMetaBuffer.flush();
+
+		/* Written one by one, the rejected event is dropped instead of retried */
+		assertEquals(2, this.feedRepository.findById(feedId).get().getCommentCount());
+		assertEquals(dropped + 1, this.meterRegistry.counter("feed.meta.dropped").count());
+		assertEquals(0.0, this.meterRegistry.get("feed.meta.buffered").gauge().value());
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.bptn.feedapp.controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+@TestPropertySource(properties = "feed.stream.max-subscribers=1")
+public class FeedStreamTest extends IntegrationTest {
+
+	String readerJwt;
+	String authorJwt;
+
+	@BeforeAll
+	public void setup() {
+
+		this.readerJwt = this.bearer(this.createUser("streamreader").getUsername());
+		this.authorJwt = this.bearer(this.createUser("streamauthor").getUsername());
+	}
+
+	@Test
+	public void streamTest() throws Exception {
+
+		MockHttpServletResponse stream = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/stream")
+				.header(AUTHORIZATION, this.readerJwt).accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(request().asyncStarted())
+				.andReturn().getResponse();
+
+		/* One stream is the limit in this test */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/stream").header(AUTHORIZATION, this.authorJwt))
+				.andExpect(status().isTooManyRequests());
+
+		String json = this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds").header(AUTHORIZATION, this.authorJwt)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(this.objectMapper.createObjectNode().put("content", "Pushed to the stream").toString()))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+		int feedId = this.objectMapper.readTree(json).get("feedId").asInt();
+
+		/* Written by the hub's workers */
+		long deadline = System.currentTimeMillis() + 5_000;
+
+		while (!stream.getContentAsString().contains("id:" + feedId) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+
+		String events = stream.getContentAsString();
+
+		assertTrue(events.contains("id:" + feedId + "\nevent:feed\ndata:"), events);
+		assertTrue(events.contains("Pushed to the stream"), events);
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.bptn.feedapp.controller;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.repository.UserRepository;
+import com.bptn.feedapp.security.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Shared setup of the MockMvc integration tests. Test classes without extra properties run
+ * in one cached context and one database, so they only rely on the rows they create. A
+ * class that needs other settings adds them with @TestPropertySource and gets its own
+ * context, the random database name keeps it from dropping the tables of a cached one.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = { "spring.datasource.url=jdbc:h2:mem:${random.uuid}",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN" })
+@AutoConfigureMockMvc
+@TestInstance(Lifecycle.PER_CLASS)
+public abstract class IntegrationTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	JwtService jwtService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@MockBean
+	Server server;
+
+	/* A verified user, not saved yet */
+	User newUser(String username) {
+
+		User user = new User();
+
+		user.setFirstName("Test");
+		user.setLastName("User");
+		user.setUsername(username);
+		user.setPassword("password");
+		user.setPhone("5550000");
+		user.setEmailId(username + "@example.com");
+		user.setEmailVerified(true);
+		user.setCreatedOn(Timestamp.from(Instant.now()));
+
+		return user;
+	}
+
+	User createUser(String username) {
+		return this.userRepository.save(this.newUser(username));
+	}
+
+	String bearer(String username) {
+		return String.format("Bearer %s", this.jwtService.generateJwtToken(username, 60_000));
+	}
+
+}
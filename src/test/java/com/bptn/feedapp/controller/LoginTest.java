@@ -0,0 +1,144 @@
+package com.bptn.feedapp.controller;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.security.CalibratedPasswordEncoder;
+import com.bptn.feedapp.security.PasswordVerifier;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+@TestPropertySource(properties = { "login.workers=1", "login.queue-capacity=0" })
+public class LoginTest extends IntegrationTest {
+
+	@Autowired
+	PasswordEncoder passwordEncoder;
+
+	@Autowired
+	PasswordVerifier passwordVerifier;
+
+	@BeforeAll
+	public void setup() {
+
+		User user = this.newUser("loginuser");
+		user.setPassword(this.passwordEncoder.encode("password"));
+
+		this.userRepository.save(user);
+
+		User old = this.newUser("oldhashuser");
+		old.setPassword(new BCryptPasswordEncoder(4).encode("password"));
+
+		this.userRepository.save(old);
+	}
+
+	private ResultActions login(String username, String password) throws Exception {
+
+		ObjectNode root = this.objectMapper.createObjectNode().put("username", username).put("password", password);
+
+		return this.mockMvc.perform(MockMvcRequestBuilders.post("/user/login").contentType(MediaType.APPLICATION_JSON)
+				.content(this.objectMapper.writeValueAsString(root)));
+	}
+
+	private ResultActions metric(String name) throws Exception {
+		return this.mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics/" + name)).andExpect(status().isOk());
+	}
+
+	private double count(String name) throws Exception {
+		String json = this.metric(name).andReturn().getResponse().getContentAsString();
+		return this.objectMapper.readTree(json).at("/measurements/0/value").asDouble();
+	}
+
+	@Test
+	public void loginTest() throws Exception {
+
+		this.login("loginuser", "password").andExpect(status().isOk()).andExpect(header().exists(AUTHORIZATION))
+				.andExpect(jsonPath("$.username", is("loginuser")));
+
+		/* Unknown users and wrong passwords fail the same way */
+		this.login("loginuser", "wrong").andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message", is("Username or Password is Incorrect. Please try again")));
+		this.login("nobody", "password").andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message", is("Username or Password is Incorrect. Please try again")));
+
+		this.metric("login.latency?tag=outcome:success").andExpect(jsonPath("$.measurements[0].value", is(1.0)));
+		this.metric("login.latency?tag=outcome:failure").andExpect(jsonPath("$.measurements[0].value", greaterThanOrEqualTo(2.0)));
+		this.metric("login.queue.wait").andExpect(jsonPath("$.measurements[0].value", greaterThanOrEqualTo(3.0)));
+	}
+
+	@Test
+	public void loginRejectedTest() throws Exception {
+
+		double started = this.count("login.queue.wait");
+
+		/* Keeps the single worker busy, there is no queue */
+		String slowHash = new BCryptPasswordEncoder(12).encode("password");
+		CompletableFuture<Boolean> busy = CompletableFuture.supplyAsync(() -> this.passwordVerifier.matches("password", slowHash));
+
+		while (this.count("login.queue.wait") == started) {
+			Thread.sleep(10);
+		}
+
+		this.login("loginuser", "password").andExpect(status().isTooManyRequests())
+				.andExpect(jsonPath("$.message", is("Too many logins in progress. Please try again")));
+
+		busy.join();
+
+		this.metric("login.rejected").andExpect(jsonPath("$.measurements[0].value", is(1.0)));
+	}
+
+	@Test
+	public void rehashTest() throws Exception {
+
+		int cost = ((CalibratedPasswordEncoder) this.passwordEncoder).getCost();
+
+		this.metric("password.bcrypt.cost").andExpect(jsonPath("$.measurements[0].value", is((double) cost)));
+		this.metric("password.bcrypt.hash.time");
+
+		/* A stronger hash is kept, only a weaker one is upgraded */
+		assertFalse(this.passwordEncoder.upgradeEncoding(String.format("$2a$%02d$", cost + 1)));
+		assertFalse(this.passwordEncoder.upgradeEncoding(String.format("$2a$%02d$", cost)));
+		assertTrue(this.passwordEncoder.upgradeEncoding(String.format("$2a$%02d$", cost - 1)));
+
+		/* Replaced in the background, a login finding the single worker busy leaves it for the next one */
+		for (int i = 0; i < 20 && this.count("password.rehashed") < 1.0; i++) {
+
+			this.login("oldhashuser", "password").andExpect(status().isOk());
+
+			/* Waits for a rehash in progress, the next login would find the worker busy */
+			long deadline = System.currentTimeMillis() + 2_000;
+
+			while (this.count("password.rehashed") < 1.0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+		}
+
+		String hash = this.userRepository.findByUsername("oldhashuser").get().getPassword();
+
+		assertTrue(hash.startsWith(String.format("$2a$%02d$", cost)), hash);
+
+		/* The worker may still be returning from the rehash */
+		Thread.sleep(100);
+
+		this.login("oldhashuser", "password").andExpect(status().isOk());
+		this.metric("password.rehashed").andExpect(jsonPath("$.measurements[0].value", is(1.0)));
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.bptn.feedapp.controller;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+public class MetricsTest extends IntegrationTest {
+
+	String jwt;
+
+	@BeforeAll
+	public void setup() {
+
+		this.createUser("metricsuser");
+
+		this.jwt = this.bearer("metricsuser");
+	}
+
+	private ResultActions metric(String name) throws Exception {
+		return this.mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics/" + name)).andExpect(status().isOk());
+	}
+
+	/* The context is shared, other test classes may have recorded a meter already */
+	private double count(String name) throws Exception {
+
+		MockHttpServletResponse response = this.mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics/" + name))
+				.andReturn().getResponse();
+
+		return response.getStatus() == HttpStatus.NOT_FOUND.value() ? 0
+				: this.objectMapper.readTree(response.getContentAsString()).at("/measurements/0/value").asDouble();
+	}
+
+	@Test
+	public void hotPathMetricsTest() throws Exception {
+
+		String[] counted = { "http.server.requests?tag=uri:/feeds/user", "feed.service?tag=method:getUserFeeds",
+				"user.service?tag=method:getUser", "jwt.verification?tag=outcome:verified",
+				"jwt.verification?tag=outcome:rejected" };
+
+		double[] before = new double[counted.length];
+
+		for (int i = 0; i < counted.length; i++) {
+			before[i] = this.count(counted[i]);
+		}
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?limit=5").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk());
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/user/get").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk());
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/user/get").header(AUTHORIZATION, "Bearer not-a-jwt"))
+				.andExpect(status().isBadRequest());
+
+		/* Endpoints, services, JWT filter */
+		double[] expected = { 1, 1, 1, 2, 1 };
+
+		for (int i = 0; i < counted.length; i++) {
+			assertEquals(before[i] + expected[i], this.count(counted[i]), counted[i]);
+		}
+
+		this.metric("http.server.requests.sql?tag=uri:/feeds/user")
+				.andExpect(jsonPath("$.measurements[1].statistic", is("TOTAL")))
+				.andExpect(jsonPath("$.measurements[1].value", greaterThanOrEqualTo(1.0)));
+
+		/* Repositories, Hikari pool */
+		this.metric("spring.data.repository.invocations?tag=repository:FeedRepository");
+		this.metric("hikaricp.connections?tag=pool:primary");
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.bptn.feedapp.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/* Behind a proxy on a trusted address the client is the one in X-Forwarded-For, it needs a real Tomcat. */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = { "spring.datasource.url=jdbc:h2:mem:${random.uuid}",
+		"rate-limit.enabled=true", "rate-limit.budgets=POST /user/signup 1 1" })
+public class RateLimitProxyTest {
+
+	@Autowired
+	TestRestTemplate restTemplate;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@MockBean
+	Server server;
+
+	private HttpStatus signup(String username, String forwardedFor) {
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.set("X-Forwarded-For", forwardedFor);
+
+		String user = this.objectMapper.createObjectNode().put("firstName", "New").put("lastName", "User")
+				.put("username", username).put("password", "password").put("phone", "5550000")
+				.put("emailId", username + "@example.com").toString();
+
+		return HttpStatus.valueOf(this.restTemplate.postForEntity("/user/signup", new HttpEntity<>(user, headers), String.class)
+				.getStatusCode().value());
+	}
+
+	@Test
+	public void forwardedClientTest() {
+
+		assertEquals(HttpStatus.OK, this.signup("proxieduser0", "203.0.113.1"));
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, this.signup("proxieduser1", "203.0.113.1"));
+
+		/* Another client behind the same proxy has its own bucket */
+		assertEquals(HttpStatus.OK, this.signup("proxieduser1", "203.0.113.2"));
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.bptn.feedapp.controller;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+@TestPropertySource(properties = { "rate-limit.enabled=true", "rate-limit.budgets=POST /feeds 2 1, POST /user/signup 2 1" })
+public class RateLimitTest extends IntegrationTest {
+
+	@BeforeAll
+	public void setup() {
+
+		this.createUser("limiteduser0");
+		this.createUser("limiteduser1");
+	}
+
+	private ResultActions postFeed(String username) throws Exception {
+
+		String jwt = this.bearer(username);
+		ObjectNode feed = this.objectMapper.createObjectNode().put("content", "Limited feed");
+
+		return this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds").header(AUTHORIZATION, jwt)
+				.contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(feed)));
+	}
+
+	private ResultActions signup(String username, String remoteAddr) throws Exception {
+
+		ObjectNode user = this.objectMapper.createObjectNode().put("firstName", "New").put("lastName", "User")
+				.put("username", username).put("password", "password").put("phone", "5550000")
+				.put("emailId", username + "@example.com");
+
+		return this.mockMvc.perform(MockMvcRequestBuilders.post("/user/signup").with(request -> {
+			request.setRemoteAddr(remoteAddr);
+			return request;
+		}).contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(user)));
+	}
+
+	@Test
+	public void feedRateLimitTest() throws Exception {
+
+		this.postFeed("limiteduser0").andExpect(status().isOk());
+		this.postFeed("limiteduser0").andExpect(status().isOk());
+
+		this.postFeed("limiteduser0").andExpect(status().isTooManyRequests())
+				.andExpect(header().string(RETRY_AFTER, "60"))
+				.andExpect(jsonPath("$.httpStatusCode", is(429)))
+				.andExpect(jsonPath("$.httpStatus", is("TOO_MANY_REQUESTS")));
+
+		/* Buckets are kept per JWT subject */
+		this.postFeed("limiteduser1").andExpect(status().isOk());
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics/ratelimit.rejected?tag=endpoint:POST /feeds"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.measurements[0].value", is(1.0)));
+	}
+
+	@Test
+	public void signupRateLimitTest() throws Exception {
+
+		this.signup("newuser0", "10.0.0.1").andExpect(status().isOk());
+		this.signup("newuser1", "10.0.0.1").andExpect(status().isOk());
+		this.signup("newuser2", "10.0.0.1").andExpect(status().isTooManyRequests());
+
+		assertFalse(this.userRepository.findByUsername("newuser2").isPresent(), "User Should Not Exist");
+
+		/* Unauthenticated requests are limited per client address */
+		this.signup("newuser2", "10.0.0.2").andExpect(status().isOk());
+	}
+
+}
@@ -0,0 +1,154 @@
+package com.bptn.feedapp.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.bptn.feedapp.config.ReplicaRoutingDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/* The replica pool points at the primary's in-memory database, the route counters tell the pools apart. */
+@TestPropertySource(properties = { "spring.datasource.url=jdbc:h2:mem:routetest",
+		"replica.urls=jdbc:h2:mem:routetest",
+		"replica.max-lag=1000",
+		"replica.lag-check-interval=3600000",
+		"replica.lag-query=SELECT MAX(LAG) FROM REPLICA_LAG" })
+@TestMethodOrder(OrderAnnotation.class)
+public class ReplicaRoutingTest extends IntegrationTest {
+
+	String jwt;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	ReplicaRoutingDataSource replicaRoutingDataSource;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	private void setLag(long lag) {
+
+		this.jdbcTemplate.update("UPDATE REPLICA_LAG SET LAG = ?", lag);
+		this.replicaRoutingDataSource.checkLag();
+	}
+
+	private double routed(String target) {
+		return this.meterRegistry.counter("datasource.route", "target", target).count();
+	}
+
+	@BeforeAll
+	public void setup() {
+
+		this.createUser("replicauser0");
+		this.createUser("replicauser1");
+
+		this.jdbcTemplate.execute("CREATE TABLE REPLICA_LAG (LAG BIGINT)");
+		this.jdbcTemplate.update("INSERT INTO REPLICA_LAG VALUES (0)");
+
+		this.jwt = this.bearer("replicauser0");
+	}
+
+	@Test
+	@Order(1)
+	public void readOnlyToReplicaTest() throws Exception {
+
+		this.setLag(0);
+		assertTrue(this.replicaRoutingDataSource.getReplicas().get(0).isHealthy());
+
+		double replica = this.routed("replica");
+		double primary = this.routed("primary");
+
+		/* Read-only service methods */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/user/replicauser1").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.username", CoreMatchers.is("replicauser1")));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?limit=5").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk());
+
+		assertEquals(replica + 2, this.routed("replica"));
+
+		/* Writes and single repository calls stay on the primary */
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds").header(AUTHORIZATION, this.jwt)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"content\":\"Hello\"}")).andExpect(status().isOk());
+
+		this.userRepository.findByUsername("replicauser1");
+
+		assertEquals(replica + 2, this.routed("replica"));
+		assertTrue(this.routed("primary") >= primary + 2);
+	}
+
+	@Test
+	@Order(2)
+	public void laggingReplicaTest() throws Exception {
+
+		this.setLag(60_000);
+		assertEquals(60_000, this.replicaRoutingDataSource.getReplicas().get(0).getLag());
+
+		double replica = this.routed("replica");
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?limit=5").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.content[0].content", CoreMatchers.is("Hello")));
+
+		assertEquals(replica, this.routed("replica"));
+		assertEquals(0.0, this.meterRegistry.get("datasource.replica.healthy").gauge().value());
+
+		/* Back in use once it catches up */
+		this.setLag(10);
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?limit=5").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk());
+
+		assertEquals(replica + 1, this.routed("replica"));
+		assertTrue(this.meterRegistry.get("hikaricp.connections").tag("pool", "replica-1").gauge().value() >= 1);
+	}
+
+	@Test
+	@Order(3)
+	public void coldTimelineOnPrimaryTest() throws Exception {
+
+		this.setLag(0);
+
+		String jwt = this.bearer(this.createUser("replicauser2").getUsername());
+
+		/* Warms the user caches, the timeline stays cold */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/user?limit=5").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk());
+
+		double replica = this.routed("replica");
+		double primary = this.routed("primary");
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/other?limit=5").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.content[0].content", CoreMatchers.is("Hello")));
+
+		double coldPrimary = this.routed("primary") - primary;
+
+		assertEquals(replica + 1, this.routed("replica"));
+
+		primary = this.routed("primary");
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/other?limit=5").header(AUTHORIZATION, jwt))
+				.andExpect(status().isOk());
+
+		/* Only the cold load went to the primary */
+		assertEquals(replica + 2, this.routed("replica"));
+		assertEquals(coldPrimary - 1, this.routed("primary") - primary);
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.bptn.feedapp.controller;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class SearchTest extends IntegrationTest {
+
+	String jwt;
+
+	int[] feedIds = new int[3];
+
+	@BeforeAll
+	public void setup() throws Exception {
+
+		this.createUser("searchuser");
+
+		this.jwt = this.bearer("searchuser");
+
+		String[] contents = { "Espresso, espresso and more Espresso!", "Morning run then an espresso at the corner cafe",
+				"Rainy day, reading a book" };
+
+		for (int i = 0; i < contents.length; i++) {
+			this.feedIds[i] = this.createFeed(contents[i]);
+		}
+	}
+
+	/* Created through the API, the index is updated by createFeed() */
+	private int createFeed(String content) throws Exception {
+
+		String json = this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds").header(AUTHORIZATION, this.jwt)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(this.objectMapper.createObjectNode().put("content", content).toString()))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+		return this.objectMapper.readTree(json).get("feedId").asInt();
+	}
+
+	@Test
+	public void searchTest() throws Exception {
+
+		/* The feed repeating the term ranks first, one hit per page */
+		String json = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/search").param("q", "ESPRESSO").param("limit", "1")
+				.header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(1)))
+				.andExpect(jsonPath("$.content[0].feedId", is(this.feedIds[0])))
+				.andReturn().getResponse().getContentAsString();
+
+		JsonNode page = this.objectMapper.readTree(json);
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/search").param("q", "ESPRESSO").param("limit", "1")
+				.param("after", page.get("nextCursor").asText()).header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(1)))
+				.andExpect(jsonPath("$.content[0].feedId", is(this.feedIds[1])))
+				.andExpect(jsonPath("$.nextCursor", nullValue()));
+
+		/* Any of the terms matches */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/search").param("q", "book cafe").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(2)));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/search").param("q", "tea").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(0)));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/search").param("q", "espresso").param("after", "not-a-cursor")
+				.header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void searchDriftTest() throws Exception {
+
+		int first = this.createFeed("Latte, latte and a latte");
+		int second = this.createFeed("Morning latte at the corner");
+
+		String json = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/search").param("q", "latte").param("limit", "1")
+				.header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].feedId", is(first)))
+				.andReturn().getResponse().getContentAsString();
+
+		/* The term gets common, its weight and every score drop */
+		for (int i = 0; i < 5; i++) {
+			this.createFeed("One latte in a long post about the weather, the traffic, the news, the week ahead and what comes next " + i);
+		}
+
+		/* Scored as on the first page, the first hit is not repeated and the second is not skipped */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/search").param("q", "latte").param("limit", "1")
+				.param("after", this.objectMapper.readTree(json).get("nextCursor").asText()).header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].feedId", is(second)));
+
+		/* A cursor only fits the query it was made for */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/search").param("q", "latte corner").param("limit", "1")
+				.param("after", this.objectMapper.readTree(json).get("nextCursor").asText()).header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void searchDeletedTest() throws Exception {
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/search").param("q", "rainy").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].feedId", is(this.feedIds[2])));
+
+		this.mockMvc.perform(MockMvcRequestBuilders.delete("/feeds/" + this.feedIds[2]).header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk());
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/search").param("q", "rainy").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(0)));
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.bptn.feedapp.controller;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class TagTest extends IntegrationTest {
+
+	String authorJwt;
+	String mentionedJwt;
+
+	int[] feedIds = new int[3];
+
+	@BeforeAll
+	public void setup() throws Exception {
+
+		this.authorJwt = this.bearer(this.createUser("tagauthor").getUsername());
+		this.mentionedJwt = this.bearer(this.createUser("tagmentioned").getUsername());
+
+		String[] contents = { "Learning #Java today with @TagMentioned, see tagauthor@example.com",
+				"More #java and #Spring, hello @nobody", "Off topic #spring#boot" };
+
+		for (int i = 0; i < contents.length; i++) {
+
+			String json = this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds").header(AUTHORIZATION, this.authorJwt)
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(this.objectMapper.createObjectNode().put("content", contents[i]).toString()))
+					.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+			this.feedIds[i] = this.objectMapper.readTree(json).get("feedId").asInt();
+		}
+	}
+
+	@Test
+	public void tagFeedsTest() throws Exception {
+
+		/* Tags are case insensitive, newest first */
+		String json = this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/tag/JAVA").param("limit", "1")
+				.header(AUTHORIZATION, this.authorJwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(1)))
+				.andExpect(jsonPath("$.content[0].feedId", is(this.feedIds[1])))
+				.andReturn().getResponse().getContentAsString();
+
+		JsonNode page = this.objectMapper.readTree(json);
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/tag/java").param("limit", "1")
+				.param("after", page.get("nextCursor").asText()).header(AUTHORIZATION, this.authorJwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].feedId", is(this.feedIds[0])))
+				.andExpect(jsonPath("$.nextCursor", nullValue()));
+
+		/* "#spring#boot" is not a tag */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/tag/boot").header(AUTHORIZATION, this.authorJwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(0)));
+	}
+
+	@Test
+	public void mentionFeedsTest() throws Exception {
+
+		/* Mentions are case insensitive, like usernames */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/mentions").header(AUTHORIZATION, this.mentionedJwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(1)))
+				.andExpect(jsonPath("$.content[0].feedId", is(this.feedIds[0])));
+
+		/* An email address is not a mention */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/mentions").header(AUTHORIZATION, this.authorJwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content.length()", is(0)));
+	}
+
+	@Test
+	public void trendingTagsTest() throws Exception {
+
+		String json = this.mockMvc.perform(MockMvcRequestBuilders.post("/feeds").header(AUTHORIZATION, this.authorJwt)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(this.objectMapper.createObjectNode().put("content", "Short lived #trending #java").toString()))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+		int feedId = this.objectMapper.readTree(json).get("feedId").asInt();
+
+		/* The context is shared, other test classes may post tags too */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/tags/trending").header(AUTHORIZATION, this.authorJwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[?(@.tag == 'java')].feedCount", contains(3)))
+				.andExpect(jsonPath("$[?(@.tag == 'spring')].feedCount", contains(2)))
+				.andExpect(jsonPath("$[?(@.tag == 'trending')].feedCount", contains(1)));
+
+		/* Deleting the feed counts its tags down, a tag without feeds is no longer listed */
+		this.mockMvc.perform(MockMvcRequestBuilders.delete("/feeds/" + feedId).header(AUTHORIZATION, this.authorJwt))
+				.andExpect(status().isOk());
+
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/feeds/tags/trending").header(AUTHORIZATION, this.authorJwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[?(@.tag == 'java')].feedCount", contains(2)))
+				.andExpect(jsonPath("$[?(@.tag == 'trending')]", empty()));
+	}
+
+}
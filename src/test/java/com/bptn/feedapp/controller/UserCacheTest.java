@@ -0,0 +1,141 @@
+package com.bptn.feedapp.controller;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.bptn.feedapp.jpa.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+public class UserCacheTest extends IntegrationTest {
+
+	String jwt;
+
+	Statistics statistics;
+
+	Cache users;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	CacheManager cacheManager;
+
+	@BeforeAll
+	public void setup() {
+
+		this.createUser("cacheuser");
+
+		this.jwt = this.bearer("cacheuser");
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		this.users = this.cacheManager.getCache("users");
+	}
+
+	private ResultActions getUser() throws Exception {
+		return this.mockMvc.perform(MockMvcRequestBuilders.get("/user/get").header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk());
+	}
+
+	private ResultActions post(String url, String content) throws Exception {
+		return this.mockMvc.perform(MockMvcRequestBuilders.post(url).header(AUTHORIZATION, this.jwt)
+				.contentType(MediaType.APPLICATION_JSON).content(content)).andExpect(status().isOk());
+	}
+
+	/* The context is shared, other test classes use the cache too */
+	private double gets(String result) throws Exception {
+
+		MockHttpServletResponse response = this.mockMvc.perform(MockMvcRequestBuilders
+				.get("/actuator/metrics/cache.gets?tag=cache:users&tag=result:" + result)).andExpect(status().isOk())
+				.andReturn().getResponse();
+
+		return this.objectMapper.readTree(response.getContentAsString()).at("/measurements/0/value").asDouble();
+	}
+
+	private long statements(Runnable action) {
+
+		long before = this.statistics.getPrepareStatementCount();
+		action.run();
+		return this.statistics.getPrepareStatementCount() - before;
+	}
+
+	@Test
+	public void cacheHitTest() throws Exception {
+
+		this.users.evict("cacheuser");
+
+		double hits = this.gets("hit");
+		double misses = this.gets("miss");
+
+		/* The user and its profile are read once */
+		assertTrue(this.statements(() -> this.userRepository.findCachedByUsername("cacheuser")) > 0);
+		assertEquals(0, this.statements(() -> this.userRepository.findCachedByUsername("cacheuser")));
+
+		/* Also through the API, the caller is resolved without a query */
+		assertEquals(0, this.statements(() -> {
+			try {
+				this.getUser().andExpect(jsonPath("$.username", is("cacheuser")));
+			} catch (Exception ex) {
+				throw new IllegalStateException(ex);
+			}
+		}));
+
+		assertEquals(misses + 1, this.gets("miss"));
+		assertEquals(hits + 2, this.gets("hit"));
+	}
+
+	@Test
+	public void saveEvictsTest() throws Exception {
+
+		this.getUser();
+		assertNotNull(this.users.get("cacheuser"));
+
+		User user = this.userRepository.findByUsername("cacheuser").get();
+		user.setPhone("5559999");
+		this.userRepository.save(user);
+
+		assertNull(this.users.get("cacheuser"));
+		this.getUser().andExpect(jsonPath("$.phone", is("5559999")));
+	}
+
+	@Test
+	public void resetPasswordEvictsTest() throws Exception {
+
+		this.getUser();
+		assertNotNull(this.users.get("cacheuser"));
+
+		this.post("/user/reset", "{\"password\":\"newpassword\"}");
+
+		assertNull(this.users.get("cacheuser"));
+	}
+
+	@Test
+	public void updateUserProfileEvictsTest() throws Exception {
+
+		this.getUser();
+		assertNotNull(this.users.get("cacheuser"));
+
+		this.post("/user/update/profile", "{\"headline\":\"Cached no more\"}");
+
+		assertNull(this.users.get("cacheuser"));
+		this.getUser().andExpect(jsonPath("$.profile.headline", is("Cached no more")));
+	}
+
+}
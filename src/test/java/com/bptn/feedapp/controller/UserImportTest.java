@@ -0,0 +1,168 @@
+package com.bptn.feedapp.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.bptn.feedapp.jpa.EmailOutbox;
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.repository.EmailOutboxRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+
+@TestPropertySource(properties = { "user.import.chunk-size=2", "admin.usernames=importadmin" })
+public class UserImportTest extends IntegrationTest {
+
+	String jwt;
+
+	@Autowired
+	PasswordEncoder passwordEncoder;
+
+	@Autowired
+	EmailOutboxRepository emailOutboxRepository;
+
+	@BeforeAll
+	public void setup() {
+
+		User user = this.newUser("importadmin");
+
+		user.setFirstName("Import");
+		user.setLastName("Admin");
+		user.setPassword(this.passwordEncoder.encode("password"));
+
+		this.userRepository.save(user);
+
+		this.jwt = this.bearer(user.getUsername());
+	}
+
+	private List<JsonNode> importUsers(String contentType, String content) throws Exception {
+
+		String response = this.mockMvc.perform(MockMvcRequestBuilders.post("/user/import")
+				.header(AUTHORIZATION, this.jwt).contentType(contentType).content(content))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+		List<JsonNode> lines = new ArrayList<>();
+
+		for (String line : response.split("\n")) {
+			lines.add(this.objectMapper.readTree(line));
+		}
+
+		return lines;
+	}
+
+	@Test
+	public void importNdjsonTest() throws Exception {
+
+		String content = String.join("\n",
+				"{\"firstName\":\"Ann\",\"lastName\":\"One\",\"username\":\"Ann1\",\"password\":\"secret1\",\"phone\":\"1\",\"emailId\":\"ann1@example.com\"}",
+				"{\"firstName\":\"Bob\",\"lastName\":\"Two\",\"username\":\"bob2\",\"password\":\"secret2\",\"phone\":\"2\",\"emailId\":\"bob2@example.com\",\"emailVerified\":true}",
+				"{\"firstName\":\"Dup\",\"lastName\":\"Admin\",\"username\":\"importadmin\",\"password\":\"x\",\"emailId\":\"dup@example.com\"}",
+				"",
+				"{\"firstName\":\"Dup\",\"lastName\":\"File\",\"username\":\"ann1\",\"password\":\"x\",\"emailId\":\"other@example.com\"}",
+				"{not json",
+				"{\"firstName\":\"No\",\"lastName\":\"Password\",\"username\":\"nopassword\",\"emailId\":\"nopassword@example.com\"}",
+				"{\"firstName\":\"Cat\",\"lastName\":\"Three\",\"username\":\"cat3\",\"password\":\"secret3\",\"phone\":\"3\",\"emailId\":\"CAT3@example.com\"}");
+
+		List<JsonNode> lines = this.importUsers("application/x-ndjson", content);
+
+		/* Per-row errors with their line numbers */
+		List<String> errors = lines.stream().filter(l -> l.has("error"))
+				.map(l -> l.get("line").asInt() + " " + l.get("error").asText().split(",")[0]).toList();
+
+		assertEquals(List.of("3 Username already exists", "5 Username already exists", "6 Invalid row",
+				"7 Missing field"), errors.stream().sorted().toList());
+
+		/* Progress after every chunk, the last line is the summary */
+		JsonNode summary = lines.get(lines.size() - 1);
+		assertTrue(summary.get("done").asBoolean());
+		assertEquals(7, summary.get("processed").asInt());
+		assertEquals(3, summary.get("imported").asInt());
+		assertEquals(4, summary.get("failed").asInt());
+		assertTrue(lines.stream().filter(l -> l.has("processed")).count() > 2);
+
+		User ann = this.userRepository.findByUsername("ann1").get();
+		assertTrue(this.passwordEncoder.matches("secret1", ann.getPassword()));
+		assertFalse(ann.getEmailVerified());
+		assertFalse(this.userRepository.findByUsername("bob2").get().getEmailVerified());
+		assertTrue(this.userRepository.findByEmailId("cat3@example.com").isPresent());
+		assertFalse(this.userRepository.findByUsername("nopassword").isPresent());
+	}
+
+	@Test
+	public void importCsvTest() throws Exception {
+
+		String content = String.join("\n",
+				"username,password,firstName,lastName,phone,emailId",
+				"csv1,pass1,\"Smith, Jr.\",\"The \"\"One\"\"\",111,csv1@example.com",
+				"csv2,pass2,Jane,Roe,222",
+				"csv3,pass3,John,Roe,333,importadmin@example.com");
+
+		List<JsonNode> lines = this.importUsers("text/csv", content);
+
+		JsonNode summary = lines.get(lines.size() - 1);
+		assertEquals(1, summary.get("imported").asInt());
+		assertEquals(2, summary.get("failed").asInt());
+
+		User user = this.userRepository.findByUsername("csv1").get();
+		assertEquals("Smith, Jr.", user.getFirstName());
+		assertEquals("The \"One\"", user.getLastName());
+		assertTrue(this.passwordEncoder.matches("pass1", user.getPassword()));
+	}
+
+	@Test
+	public void importVerifyTest() throws Exception {
+
+		this.importUsers("text/csv", "username,password,firstName,lastName,emailId\nverify1,pass1,Vera,Fy,verify1@example.com");
+
+		/* Queued with the user, it is sent by the EmailDispatcher */
+		List<EmailOutbox> emails = this.emailOutboxRepository.findAll().stream()
+				.filter(email -> email.getUser().getUsername().equals("verify1")).toList();
+
+		assertEquals(1, emails.size());
+		assertEquals(EmailOutbox.VERIFY, emails.get(0).getEmailType());
+
+		String login = this.objectMapper.createObjectNode().put("username", "verify1").put("password", "pass1").toString();
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/user/login").contentType(MediaType.APPLICATION_JSON).content(login))
+				.andExpect(status().isBadRequest());
+
+		/* The link in the email carries a JWT of the user */
+		this.mockMvc.perform(MockMvcRequestBuilders.get("/user/verify/email").header(AUTHORIZATION, this.bearer("verify1")))
+				.andExpect(status().isOk());
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/user/login").contentType(MediaType.APPLICATION_JSON).content(login))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	public void importUnauthenticatedTest() throws Exception {
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/user/import").contentType("text/csv").content("username"))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	public void importNotAdminTest() throws Exception {
+
+		this.createUser("importuser");
+
+		this.mockMvc.perform(MockMvcRequestBuilders.post("/user/import").header(AUTHORIZATION, this.bearer("importuser"))
+				.contentType("text/csv").content("username,password,firstName,lastName,emailId\nsneaky,pass,Sneaky,User,sneaky@example.com"))
+				.andExpect(status().isForbidden());
+
+		assertFalse(this.userRepository.findByUsername("sneaky").isPresent());
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.bptn.feedapp.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.bptn.feedapp.jpa.Profile;
+import com.bptn.feedapp.jpa.User;
+import com.fasterxml.jackson.databind.JsonNode;
+
+@TestPropertySource(properties = "user.list.fetch-size=7")
+public class UserListTest extends IntegrationTest {
+
+	static final int USERS = 25;
+
+	String jwt;
+
+	@BeforeAll
+	public void setup() {
+
+		for (int i = 0; i < USERS; i++) {
+
+			User user = this.newUser("listuser" + i);
+
+			user.setFirstName("First" + i);
+			user.setLastName("Last" + i);
+			user.setPhone("555000" + i);
+			user.setEmailVerified(i % 2 == 0);
+
+			/* Every third user has no profile */
+			if (i % 3 != 0) {
+				Profile profile = new Profile();
+				profile.setHeadline("Headline " + i);
+				profile.setCity("City " + i);
+				profile.setUser(user);
+				user.setProfile(profile);
+			}
+
+			this.userRepository.save(user);
+		}
+
+		this.jwt = this.bearer("listuser0");
+	}
+
+	private JsonNode get(String url) throws Exception {
+
+		return this.objectMapper.readTree(this.mockMvc.perform(MockMvcRequestBuilders.get(url).header(AUTHORIZATION, this.jwt))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+	}
+
+	@Test
+	public void streamUsersTest() throws Exception {
+
+		/* Same JSON as the JPA entities */
+		JsonNode expected = this.objectMapper.valueToTree(this.userRepository.findAll());
+
+		assertEquals(expected, this.get("/user/"));
+	}
+
+	@Test
+	public void listUsersTest() throws Exception {
+
+		List<Integer> userIds = new ArrayList<>();
+		String after = "";
+		int pages = 0;
+
+		do {
+			JsonNode page = this.get("/user/list?limit=10&after=" + after);
+
+			page.get("content").forEach(u -> userIds.add(u.get("userId").asInt()));
+			after = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+			pages++;
+
+		} while (after != null);
+
+		assertEquals(3, pages);
+		assertEquals(this.userRepository.findAll().stream().map(User::getUserId).sorted().toList(), userIds);
+
+		JsonNode first = this.get("/user/list?limit=1");
+		assertEquals("listuser0", first.get("content").get(0).get("username").asText());
+		assertEquals("Headline 1", this.get("/user/list?limit=1&after=" + first.get("nextCursor").asText())
+				.get("content").get(0).get("profile").get("headline").asText());
+		assertNull(first.get("content").get(0).get("profile"));
+	}
+
+}
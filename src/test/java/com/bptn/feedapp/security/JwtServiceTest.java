@@ -0,0 +1,62 @@
+package com.bptn.feedapp.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.bptn.feedapp.provider.ResourceProvider;
+
+public class JwtServiceTest {
+
+	static final String SECRET = "secret";
+	static final String ISSUER = "issuer";
+
+	JwtService jwtService;
+
+	@BeforeEach
+	public void setup() {
+
+		ResourceProvider provider = mock(ResourceProvider.class);
+
+		when(provider.getJwtSecret()).thenReturn(SECRET);
+		when(provider.getJwtIssuer()).thenReturn(ISSUER);
+		when(provider.getJwtAudience()).thenReturn("audience");
+		when(provider.getJwtCacheSize()).thenReturn(100L);
+
+		this.jwtService = new JwtService();
+		this.jwtService.provider = provider;
+		this.jwtService.init();
+	}
+
+	@Test
+	public void cachedTokenExpiresTest() throws Exception {
+
+		String token = this.jwtService.generateJwtToken("jwtuser", 1_000);
+
+		/* Verified once, then served from the cache */
+		assertEquals("jwtuser", this.jwtService.getSubject(token));
+		assertEquals("jwtuser", this.jwtService.getSubject(token));
+
+		/* "exp" has second precision, the cached copy is gone by then and the token is verified again */
+		Thread.sleep(2_100);
+
+		assertThrows(TokenExpiredException.class, () -> this.jwtService.getSubject(token));
+	}
+
+	@Test
+	public void tokenWithoutExpiryTest() {
+
+		String token = JWT.create().withIssuer(ISSUER).withSubject("jwtuser").sign(Algorithm.HMAC512(SECRET));
+
+		assertEquals("jwtuser", this.jwtService.getSubject(token));
+		assertEquals("jwtuser", this.jwtService.getSubject(token));
+	}
+
+}
@@ -0,0 +1,138 @@
+package com.bptn.feedapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.bptn.feedapp.jpa.User;
+import com.bptn.feedapp.provider.ResourceProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class FeedStreamHubTest {
+
+	static final int BUFFER_SIZE = 4;
+
+	/* Blocks in send() holding the emitter monitor, as a write to a client that stopped reading does */
+	static class StalledEmitter extends SseEmitter {
+
+		final CountDownLatch sending = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch completed = new CountDownLatch(1);
+
+		@Override
+		public synchronized void send(Set<DataWithMediaType> items) throws IOException {
+
+			this.sending.countDown();
+
+			try {
+				this.release.await();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Override
+		public synchronized void complete() {
+			super.complete();
+			this.completed.countDown();
+		}
+	}
+
+	static class RecordingEmitter extends SseEmitter {
+
+		final AtomicInteger sent = new AtomicInteger();
+
+		@Override
+		public synchronized void send(Set<DataWithMediaType> items) throws IOException {
+			this.sent.incrementAndGet();
+		}
+	}
+
+	FeedStreamHub hub;
+	MeterRegistry meterRegistry;
+
+	@BeforeEach
+	public void setup() {
+
+		ResourceProvider provider = mock(ResourceProvider.class);
+
+		when(provider.getFeedStreamBufferSize()).thenReturn(BUFFER_SIZE);
+		when(provider.getFeedStreamWorkers()).thenReturn(1);
+		when(provider.getFeedStreamWriters()).thenReturn(2);
+		when(provider.getFeedStreamMaxSubscribers()).thenReturn(10);
+
+		this.meterRegistry = new SimpleMeterRegistry();
+
+		this.hub = new FeedStreamHub();
+		this.hub.provider = provider;
+		this.hub.objectMapper = new ObjectMapper();
+		this.hub.meterRegistry = this.meterRegistry;
+		this.hub.init();
+	}
+
+	@AfterEach
+	public void teardown() {
+		this.hub.destroy();
+	}
+
+	@Test
+	public void stalledSubscriberTest() throws Exception {
+
+		StalledEmitter stalled = new StalledEmitter();
+		RecordingEmitter reader = new RecordingEmitter();
+
+		this.hub.subscribe(this.user(1), stalled);
+		this.hub.subscribe(this.user(2), reader);
+
+		assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+
+		/* The heartbeat never waits on the stuck write, and every beat still reaches the other client */
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+			for (int i = 0; i < 3 * BUFFER_SIZE; i++) {
+
+				this.hub.heartbeat();
+
+				while (reader.sent.get() < i + 2) {
+					Thread.sleep(5);
+				}
+			}
+		});
+
+		/* Closed, but completed by its own writer once the write returns */
+		assertEquals(1.0, this.meterRegistry.get("feed.stream.closed").counter().count());
+		assertEquals(1.0, this.meterRegistry.get("feed.stream.subscribers").gauge().value());
+		assertFalse(stalled.completed.await(100, TimeUnit.MILLISECONDS));
+
+		stalled.release.countDown();
+
+		assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+	}
+
+	private User user(int userId) {
+
+		User user = new User();
+		user.setUserId(userId);
+
+		return user;
+	}
+
+}